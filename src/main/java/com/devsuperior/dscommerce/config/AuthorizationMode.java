@@ -0,0 +1,44 @@
+package com.devsuperior.dscommerce.config;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * How protected endpoints are authorized, from {@code security.authorization.mode}: the compiled
+ * {@link AuthorizationRules} table or the {@code @PreAuthorize} annotations. Exactly one of them is
+ * always in force. A missing or unknown value stops the application at startup instead of leaving
+ * both switched off, which would let anonymous callers through to every endpoint.
+ */
+public enum AuthorizationMode {
+
+	RULES,
+	ANNOTATIONS;
+
+	public static final String PROPERTY = "security.authorization.mode";
+
+	public static AuthorizationMode parse(String value) {
+		if (value != null) {
+			String normalized = value.trim().toUpperCase(Locale.ROOT);
+			for (AuthorizationMode mode : values()) {
+				if (mode.name().equals(normalized)) {
+					return mode;
+				}
+			}
+		}
+		throw new IllegalStateException("Invalid " + PROPERTY + " '" + value + "', expected one of "
+				+ Arrays.toString(values()));
+	}
+
+	// enables method security only for ANNOTATIONS, failing the startup on invalid values
+	static class AnnotationsCondition implements Condition {
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			return parse(context.getEnvironment().getProperty(PROPERTY)) == ANNOTATIONS;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.devsuperior.dscommerce.config;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.List;
+
+/**
+ * Route to role table for the protected endpoints. Each route is compiled once into a request
+ * matcher and an {@link AuthorityAuthorizationManager}, so a request is authorized by matching
+ * its method and path and comparing authorities, without evaluating expressions.
+ * It mirrors the {@code @PreAuthorize} annotations, which are still used when
+ * {@code security.authorization.mode=annotations}; AuthorizationRulesIT fails when an annotated
+ * handler has no rule or a rule grants other roles. Reads without a rule are public and any other
+ * request without one is denied.
+ */
+public final class AuthorizationRules {
+
+	private static final String ADMIN = "ROLE_ADMIN";
+	private static final String CLIENT = "ROLE_CLIENT";
+
+	public static final List<Rule> RULES = List.of(
+			new Rule(HttpMethod.GET, "/products/export", ADMIN),
+			new Rule(HttpMethod.POST, "/products", ADMIN),
+			new Rule(HttpMethod.POST, "/products/import", ADMIN),
+			new Rule(HttpMethod.PUT, "/products/prices", ADMIN),
+			new Rule(HttpMethod.PUT, "/products/*", ADMIN),
+			new Rule(HttpMethod.PATCH, "/products/*", ADMIN),
+			new Rule(HttpMethod.DELETE, "/products/*", ADMIN),
+			new Rule(HttpMethod.GET, "/orders/*", ADMIN, CLIENT),
+			new Rule(HttpMethod.POST, "/orders", CLIENT),
+			new Rule(HttpMethod.GET, "/users/me", ADMIN, CLIENT),
+			new Rule(HttpMethod.POST, "/auth/logout", ADMIN, CLIENT),
+			new Rule(HttpMethod.POST, "/auth/revoke", ADMIN),
+			new Rule(HttpMethod.POST, "/auth/unlock", ADMIN));
+
+	private AuthorizationRules() {
+	}
+
+	public static class Rule {
+
+		private final RequestMatcher matcher;
+		private final AuthorizationManager<RequestAuthorizationContext> manager;
+
+		public Rule(HttpMethod method, String pattern, String... authorities) {
+			this.matcher = new AntPathRequestMatcher(pattern, method.name());
+			this.manager = AuthorityAuthorizationManager.hasAnyAuthority(authorities);
+		}
+
+		public RequestMatcher getMatcher() {
+			return matcher;
+		}
+
+		public AuthorizationManager<RequestAuthorizationContext> getManager() {
+			return manager;
+		}
+	}
+}
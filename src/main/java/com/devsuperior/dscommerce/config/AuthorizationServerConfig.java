@@ -2,11 +2,22 @@ package com.devsuperior.dscommerce.config;
 
 import com.devsuperior.dscommerce.config.customgrant.CustomPasswordAuthenticationConverter;
 import com.devsuperior.dscommerce.config.customgrant.CustomPasswordAuthenticationProvider;
+import com.devsuperior.dscommerce.config.customgrant.CustomTokenErrorResponseHandler;
 import com.devsuperior.dscommerce.config.customgrant.CustomUserAuthorities;
+import com.devsuperior.dscommerce.config.customgrant.LoginThrottle;
+import com.devsuperior.dscommerce.config.customgrant.PasswordVerificationExecutor;
+import com.devsuperior.dscommerce.services.TokenRevocationService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -14,17 +25,23 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
@@ -40,9 +57,12 @@ import org.springframework.security.web.SecurityFilterChain;
 
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -58,12 +78,42 @@ public class AuthorizationServerConfig {
 	@Value("${security.jwt.duration}")
 	private Integer jwtDurationSeconds;
 
+	@Value("${security.jwt.refresh-duration}")
+	private Integer refreshDurationSeconds;
+
+	@Value("${security.authorization-store.max-size}")
+	private Integer authorizationStoreMaxSize;
+
+	@Value("${security.jwt.algorithm}")
+	private String jwtAlgorithm;
+
+	@Value("${security.login-throttle.max-failures-per-user}")
+	private Integer loginThrottleMaxFailuresPerUser;
+
+	@Value("${security.login-throttle.max-failures-per-ip}")
+	private Integer loginThrottleMaxFailuresPerIp;
+
+	@Value("${security.login-throttle.window}")
+	private Integer loginThrottleWindowSeconds;
+
+	@Value("${security.login-throttle.max-keys}")
+	private Integer loginThrottleMaxKeys;
+
+	@Value("${security.password-verification.threads}")
+	private Integer passwordVerificationThreads;
+
+	@Value("${security.password-verification.queue-capacity}")
+	private Integer passwordVerificationQueueCapacity;
+
 	@Autowired
 	private UserDetailsService userDetailsService;
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@Bean
 	@Order(2)
-	public SecurityFilterChain asSecurityFilterChain(HttpSecurity http) throws Exception {
+	public SecurityFilterChain asSecurityFilterChain(HttpSecurity http, TokenRevocationService tokenRevocationService) throws Exception {
 
 		OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
 
@@ -71,7 +121,8 @@ public class AuthorizationServerConfig {
 		http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
 			.tokenEndpoint(tokenEndpoint -> tokenEndpoint
 				.accessTokenRequestConverter(new CustomPasswordAuthenticationConverter())
-				.authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService(), tokenGenerator(), userDetailsService, passwordEncoder())));
+				.authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService(), tokenGenerator(), userDetailsService, passwordVerificationExecutor(), loginThrottle(), tokenRevocationService))
+				.errorResponseHandler(new CustomTokenErrorResponseHandler(loginThrottle().retryAfterSeconds())));
 
 		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
 		// @formatter:on
@@ -80,8 +131,8 @@ public class AuthorizationServerConfig {
 	}
 
 	@Bean
-	public OAuth2AuthorizationService authorizationService() {
-		return new InMemoryOAuth2AuthorizationService();
+	public BoundedOAuth2AuthorizationService authorizationService() {
+		return new BoundedOAuth2AuthorizationService(authorizationStoreMaxSize);
 	}
 
 	@Bean
@@ -94,6 +145,17 @@ public class AuthorizationServerConfig {
 		return new BCryptPasswordEncoder();
 	}
 
+	@Bean
+	public PasswordVerificationExecutor passwordVerificationExecutor() {
+		return new PasswordVerificationExecutor(passwordEncoder(), passwordVerificationThreads, passwordVerificationQueueCapacity, meterRegistry);
+	}
+
+	@Bean
+	public LoginThrottle loginThrottle() {
+		return new LoginThrottle(loginThrottleMaxFailuresPerUser, loginThrottleMaxFailuresPerIp,
+				Duration.ofSeconds(loginThrottleWindowSeconds), loginThrottleMaxKeys, meterRegistry);
+	}
+
 	@Bean
 	public RegisteredClientRepository registeredClientRepository() {
 		// @formatter:off
@@ -104,6 +166,7 @@ public class AuthorizationServerConfig {
 			.scope("read")
 			.scope("write")
 			.authorizationGrantType(new AuthorizationGrantType("password"))
+			.authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
 			.tokenSettings(tokenSettings())
 			.clientSettings(clientSettings())
 			.build();
@@ -118,6 +181,8 @@ public class AuthorizationServerConfig {
 		return TokenSettings.builder()
 			.accessTokenFormat(OAuth2TokenFormat.SELF_CONTAINED)
 			.accessTokenTimeToLive(Duration.ofSeconds(jwtDurationSeconds))
+			.refreshTokenTimeToLive(Duration.ofSeconds(refreshDurationSeconds))
+			.reuseRefreshTokens(false)
 			.build();
 		// @formatter:on
 	}
@@ -138,7 +203,8 @@ public class AuthorizationServerConfig {
 		JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
 		jwtGenerator.setJwtCustomizer(tokenCustomizer());
 		OAuth2AccessTokenGenerator accessTokenGenerator = new OAuth2AccessTokenGenerator();
-		return new DelegatingOAuth2TokenGenerator(jwtGenerator, accessTokenGenerator);
+		OAuth2RefreshTokenGenerator refreshTokenGenerator = new OAuth2RefreshTokenGenerator();
+		return new DelegatingOAuth2TokenGenerator(jwtGenerator, accessTokenGenerator, refreshTokenGenerator);
 	}
 
 	@Bean
@@ -146,29 +212,94 @@ public class AuthorizationServerConfig {
 		return context -> {
 			OAuth2ClientAuthenticationToken principal = context.getPrincipal();
 			CustomUserAuthorities user = (CustomUserAuthorities) principal.getDetails();
-			List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority()).toList();
+			Collection<? extends GrantedAuthority> granted = user.getAuthorities();
+			// the stored principal holds the roles seen at login; a refresh reads them again, so a role
+			// granted or revoked reaches the user within one access token lifetime
+			if (AuthorizationGrantType.REFRESH_TOKEN.equals(context.getAuthorizationGrantType())) {
+				granted = currentAuthorities(user.getUsername());
+			}
+			List<String> authorities = granted.stream().map(x -> x.getAuthority()).toList();
+			context.getJwsHeader().algorithm(signatureAlgorithm());
 			if (context.getTokenType().getValue().equals("access_token")) {
 				// @formatter:off
 				context.getClaims()
+					.id(UUID.randomUUID().toString())
 					.claim("authorities", authorities)
-					.claim("username", user.getUsername());
+					.claim("username", user.getUsername())
+					.claim("auth_time", user.getAuthTime().getEpochSecond());
 				// @formatter:on
+				if (user.getUserId() != null) {
+					context.getClaims().claim("user_id", user.getUserId());
+				}
 			}
 		};
 	}
 
+	private Collection<? extends GrantedAuthority> currentAuthorities(String username) {
+		try {
+			return userDetailsService.loadUserByUsername(username).getAuthorities();
+		} catch (UsernameNotFoundException e) {
+			throw new OAuth2AuthenticationException(OAuth2ErrorCodes.INVALID_GRANT);
+		}
+	}
+
 	@Bean
-	public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
-		return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+	public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource, TokenRevocationService tokenRevocationService) {
+		// Only the configured algorithm is accepted, so a token signed with any other key type is rejected up front
+		DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+		jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.parse(signatureAlgorithm().getName()), jwkSource));
+		jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+		});
+		NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+		jwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), new RevokedTokenValidator(tokenRevocationService)));
+		return jwtDecoder;
 	}
 
 	@Bean
 	public JWKSource<SecurityContext> jwkSource() {
-		RSAKey rsaKey = generateRsa();
-		JWKSet jwkSet = new JWKSet(rsaKey);
+		JWK jwk = generateJwk(signatureAlgorithm());
+		JWKSet jwkSet = new JWKSet(jwk);
 		return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
 	}
 
+	private SignatureAlgorithm signatureAlgorithm() {
+		SignatureAlgorithm algorithm = SignatureAlgorithm.from(jwtAlgorithm);
+		if (algorithm == null) {
+			throw new IllegalStateException("Unsupported JWT signing algorithm: " + jwtAlgorithm);
+		}
+		return algorithm;
+	}
+
+	private static JWK generateJwk(SignatureAlgorithm algorithm) {
+		JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(algorithm.getName());
+		if (JWSAlgorithm.Family.RSA.contains(jwsAlgorithm)) {
+			return generateRsa();
+		}
+		if (JWSAlgorithm.Family.EC.contains(jwsAlgorithm)) {
+			return generateEc(Curve.forJWSAlgorithm(jwsAlgorithm).iterator().next());
+		}
+		throw new IllegalStateException("Unsupported JWT signing algorithm: " + algorithm.getName());
+	}
+
+	private static ECKey generateEc(Curve curve) {
+		KeyPair keyPair = generateEcKey(curve);
+		ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+		ECPrivateKey privateKey = (ECPrivateKey) keyPair.getPrivate();
+		return new ECKey.Builder(curve, publicKey).privateKey(privateKey).keyID(UUID.randomUUID().toString()).build();
+	}
+
+	private static KeyPair generateEcKey(Curve curve) {
+		KeyPair keyPair;
+		try {
+			KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+			keyPairGenerator.initialize(curve.toECParameterSpec());
+			keyPair = keyPairGenerator.generateKeyPair();
+		} catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+		return keyPair;
+	}
+
 	private static RSAKey generateRsa() {
 		KeyPair keyPair = generateRsaKey();
 		RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
@@ -0,0 +1,208 @@
+package com.devsuperior.dscommerce.config;
+
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * In-memory authorization store holding at most {@code maxAuthorizations} entries.
+ * Tokens are indexed by value, so refresh and revocation lookups do not scan the store.
+ * When the store is full, saving evicts the least recently used authorization and its refresh
+ * token stops working. Expired authorizations are swept on a schedule, off the save path.
+ * Authorizations are also indexed by the {@code username} claim of their access token, so logout
+ * and revocation can drop a user's refresh tokens. A refresh keeps the {@code auth_time} claim of
+ * the login, which identifies one session across rotations.
+ */
+public class BoundedOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+	private static final String USERNAME_CLAIM = "username";
+	private static final String AUTH_TIME_CLAIM = "auth_time";
+
+	private final int maxAuthorizations;
+	private final Map<String, OAuth2Authorization> authorizations;
+	private final Map<String, String> accessTokens = new HashMap<>();
+	private final Map<String, String> refreshTokens = new HashMap<>();
+	private final Map<String, Set<String>> idsByUsername = new HashMap<>();
+
+	public BoundedOAuth2AuthorizationService(int maxAuthorizations) {
+		Assert.isTrue(maxAuthorizations > 0, "maxAuthorizations must be greater than zero");
+		this.maxAuthorizations = maxAuthorizations;
+		this.authorizations = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, OAuth2Authorization> eldest) {
+				if (size() <= maxAuthorizations) {
+					return false;
+				}
+				unindex(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	@Override
+	public synchronized void save(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		OAuth2Authorization previous = authorizations.put(authorization.getId(), authorization);
+		if (previous != null) {
+			unindex(previous);
+		}
+		index(authorization);
+	}
+
+	@Override
+	public synchronized void remove(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		OAuth2Authorization removed = authorizations.remove(authorization.getId());
+		if (removed != null) {
+			unindex(removed);
+		}
+	}
+
+	@Nullable
+	@Override
+	public synchronized OAuth2Authorization findById(String id) {
+		Assert.hasText(id, "id cannot be empty");
+		return authorizations.get(id);
+	}
+
+	@Nullable
+	@Override
+	public synchronized OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+		Assert.hasText(token, "token cannot be empty");
+		String id = null;
+		if (tokenType == null || OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+			id = refreshTokens.get(token);
+		}
+		if (id == null && (tokenType == null || OAuth2TokenType.ACCESS_TOKEN.equals(tokenType))) {
+			id = accessTokens.get(token);
+		}
+		return id != null ? authorizations.get(id) : null;
+	}
+
+	// every session of the user
+	public synchronized int removeByUsername(String username) {
+		return removeByUsername(username, authorization -> true);
+	}
+
+	// the session opened by the login at authTime, whatever refresh it is at
+	public synchronized int removeByUsernameAndAuthTime(String username, Instant authTime) {
+		return removeByUsername(username, authorization -> authTime.equals(authTimeOf(authorization)));
+	}
+
+	public synchronized int size() {
+		return authorizations.size();
+	}
+
+	@Scheduled(fixedDelayString = "${security.authorization-store.sweep-interval}",
+			initialDelayString = "${security.authorization-store.sweep-interval}")
+	public synchronized int removeExpired() {
+		Instant now = Instant.now();
+		int before = authorizations.size();
+		authorizations.values().removeIf(authorization -> {
+			boolean expired = isExpired(authorization, now);
+			if (expired) {
+				unindex(authorization);
+			}
+			return expired;
+		});
+		return before - authorizations.size();
+	}
+
+	private static boolean isExpired(OAuth2Authorization authorization, Instant now) {
+		OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getRefreshToken() != null
+				? authorization.getRefreshToken()
+				: authorization.getAccessToken();
+		if (token == null) {
+			return false;
+		}
+		Instant expiresAt = token.getToken().getExpiresAt();
+		return token.isInvalidated() || (expiresAt != null && expiresAt.isBefore(now));
+	}
+
+	private int removeByUsername(String username, Predicate<OAuth2Authorization> filter) {
+		Set<String> ids = idsByUsername.get(username);
+		if (ids == null) {
+			return 0;
+		}
+		List<OAuth2Authorization> matches = ids.stream()
+				.map(authorizations::get)
+				.filter(filter)
+				.toList();
+		for (OAuth2Authorization authorization : matches) {
+			authorizations.remove(authorization.getId());
+			unindex(authorization);
+		}
+		return matches.size();
+	}
+
+	@Nullable
+	private static String usernameOf(OAuth2Authorization authorization) {
+		Object username = claimOf(authorization, USERNAME_CLAIM);
+		return username != null ? username.toString() : null;
+	}
+
+	@Nullable
+	private static Instant authTimeOf(OAuth2Authorization authorization) {
+		Object authTime = claimOf(authorization, AUTH_TIME_CLAIM);
+		if (authTime instanceof Instant instant) {
+			return instant;
+		}
+		return authTime instanceof Number seconds ? Instant.ofEpochSecond(seconds.longValue()) : null;
+	}
+
+	@Nullable
+	private static Object claimOf(OAuth2Authorization authorization, String claim) {
+		OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+		Map<String, Object> claims = accessToken != null ? accessToken.getClaims() : null;
+		return claims != null ? claims.get(claim) : null;
+	}
+
+	private void index(OAuth2Authorization authorization) {
+		OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+		if (accessToken != null) {
+			accessTokens.put(accessToken.getToken().getTokenValue(), authorization.getId());
+		}
+		OAuth2Authorization.Token<OAuth2RefreshToken> refreshToken = authorization.getRefreshToken();
+		if (refreshToken != null) {
+			refreshTokens.put(refreshToken.getToken().getTokenValue(), authorization.getId());
+		}
+		String username = usernameOf(authorization);
+		if (username != null) {
+			idsByUsername.computeIfAbsent(username, x -> new HashSet<>()).add(authorization.getId());
+		}
+	}
+
+	private void unindex(OAuth2Authorization authorization) {
+		OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+		if (accessToken != null) {
+			accessTokens.remove(accessToken.getToken().getTokenValue());
+		}
+		OAuth2Authorization.Token<OAuth2RefreshToken> refreshToken = authorization.getRefreshToken();
+		if (refreshToken != null) {
+			refreshTokens.remove(refreshToken.getToken().getTokenValue());
+		}
+		String username = usernameOf(authorization);
+		Set<String> ids = username != null ? idsByUsername.get(username) : null;
+		if (ids != null) {
+			ids.remove(authorization.getId());
+			if (ids.isEmpty()) {
+				idsByUsername.remove(username);
+			}
+		}
+	}
+}
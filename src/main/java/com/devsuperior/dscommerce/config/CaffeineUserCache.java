@@ -0,0 +1,43 @@
+package com.devsuperior.dscommerce.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * Bounded, short-lived cache of the credentials and roles loaded for token issuance.
+ * Entries expire after {@code ttl} even without an explicit eviction.
+ */
+public class CaffeineUserCache implements UserCache {
+
+	private final Cache<String, UserDetails> cache;
+
+	public CaffeineUserCache(Duration ttl, long maxSize, MeterRegistry meterRegistry) {
+		this.cache = Caffeine.newBuilder()
+				.expireAfterWrite(ttl)
+				.maximumSize(maxSize)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "userCredentials");
+	}
+
+	@Override
+	public UserDetails getUserFromCache(String username) {
+		return cache.getIfPresent(username);
+	}
+
+	@Override
+	public void putUserInCache(UserDetails user) {
+		cache.put(user.getUsername(), user);
+	}
+
+	@Override
+	public void removeUserFromCache(String username) {
+		cache.invalidate(username);
+	}
+}
@@ -0,0 +1,99 @@
+package com.devsuperior.dscommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most {@code maxConcurrentConnections} callers hold a connection at once. Extra callers
+ * park on a fair semaphore, which is cheap for virtual threads, instead of piling up inside
+ * the pool. The permit is released when the connection is closed.
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+	private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+	private final Semaphore permits;
+	private final long acquireTimeoutMillis;
+
+	public ConcurrencyLimitedDataSource(DataSource targetDataSource, int maxConcurrentConnections, long acquireTimeoutMillis) {
+		super(targetDataSource);
+		this.permits = new Semaphore(maxConcurrentConnections, true);
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+	}
+
+	// as many callers as the pool has connections, waiting no longer than the pool would
+	public static ConcurrencyLimitedDataSource limiting(HikariDataSource pool) {
+		// the pool is not started yet, so an unset size still reads -1
+		int poolSize = pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+		return new ConcurrencyLimitedDataSource(pool, poolSize, pool.getConnectionTimeout());
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		acquire();
+		try {
+			return releasingOnClose(obtainTargetDataSource().getConnection());
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		acquire();
+		try {
+			return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	public int availablePermits() {
+		return permits.availablePermits();
+	}
+
+	private void acquire() throws SQLException {
+		try {
+			if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new SQLTransientConnectionException(
+						"Connection not available, request timed out after " + acquireTimeoutMillis + "ms");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+		}
+	}
+
+	private Connection releasingOnClose(Connection target) {
+		AtomicBoolean released = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+				(proxy, method, args) -> {
+					if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+						try {
+							return method.invoke(target, args);
+						} catch (InvocationTargetException e) {
+							throw e.getTargetException();
+						} finally {
+							permits.release();
+						}
+					}
+					try {
+						return method.invoke(target, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+				});
+	}
+}
@@ -0,0 +1,96 @@
+package com.devsuperior.dscommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.callback.Callback;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Splits reads and writes between a primary and a replica pool. The primary is configured by
+ * the usual spring.datasource properties and the replica by datasource.replica. Migrations run on
+ * the primary only; datasource.replica.migrate also runs them, and the seed, on the replica, for local setups
+ * where the replica is a separate H2 database instead of a real copy of the primary.
+ */
+@Configuration
+@ConditionalOnProperty(value = "datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+	@Value("${datasource.replica.url}")
+	private String replicaUrl;
+
+	@Value("${datasource.replica.username}")
+	private String replicaUsername;
+
+	@Value("${datasource.replica.password}")
+	private String replicaPassword;
+
+	@Value("${datasource.replica.migrate}")
+	private Boolean replicaMigrate;
+
+	@Value("${datasource.routing.sticky-window}")
+	private Integer stickyWindowSeconds;
+
+	@Value("${datasource.routing.sticky-max-size}")
+	private Integer stickyMaxSize;
+
+	@Value("${spring.flyway.locations}")
+	private String[] flywayLocations;
+
+	@Value("${virtual-threads.enabled}")
+	private Boolean virtualThreads;
+
+	@Bean
+	@FlywayDataSource
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean
+	public HikariDataSource replicaDataSource(DataSourceProperties properties, ObjectProvider<Callback> flywayCallbacks) {
+		if (replicaMigrate) {
+			// a read-only pool cannot run DDL, so the migration opens its own connections
+			Flyway.configure()
+					.dataSource(replicaUrl, replicaUsername, replicaPassword)
+					.locations(flywayLocations)
+					.callbacks(flywayCallbacks.orderedStream().toArray(Callback[]::new))
+					.load()
+					.migrate();
+		}
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setDriverClassName(properties.determineDriverClassName());
+		dataSource.setJdbcUrl(replicaUrl);
+		dataSource.setUsername(replicaUsername);
+		dataSource.setPassword(replicaPassword);
+		dataSource.setReadOnly(true);
+		dataSource.setPoolName("replica");
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+			@Qualifier("replicaDataSource") HikariDataSource replica) {
+		// with virtual threads each pool gets its own limit, see VirtualThreadsConfig
+		DataSource primaryTarget = virtualThreads ? ConcurrencyLimitedDataSource.limiting(primary) : primary;
+		DataSource replicaTarget = virtualThreads ? ConcurrencyLimitedDataSource.limiting(replica) : replica;
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryTarget, replicaTarget,
+				Duration.ofSeconds(stickyWindowSeconds), stickyMaxSize);
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+}
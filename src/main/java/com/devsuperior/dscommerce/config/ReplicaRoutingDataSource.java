@@ -0,0 +1,68 @@
+package com.devsuperior.dscommerce.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. A user whose
+ * write transaction committed less than {@code stickyWindow} ago keeps reading from the primary,
+ * so they see their own writes while the replica catches up.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the read-only flag is only known after the transaction manager asks for the connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public enum Target { PRIMARY, REPLICA }
+
+	private final Cache<String, Boolean> recentWriters;
+
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration stickyWindow, long maxStickyUsers) {
+		this.recentWriters = Caffeine.newBuilder()
+				.expireAfterWrite(stickyWindow)
+				.maximumSize(maxStickyUsers)
+				.build();
+		setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String username = currentUsername();
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			boolean sticky = username != null && recentWriters.getIfPresent(username) != null;
+			return sticky ? Target.PRIMARY : Target.REPLICA;
+		}
+		if (username != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					recentWriters.put(username, Boolean.TRUE);
+				}
+			});
+		}
+		return Target.PRIMARY;
+	}
+
+	// the subject of our access tokens is the client, the user is in the username claim
+	private String currentUsername() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null) {
+			return null;
+		}
+		if (authentication.getPrincipal() instanceof Jwt jwt && jwt.hasClaim("username")) {
+			return jwt.getClaimAsString("username");
+		}
+		return authentication.getName();
+	}
+}
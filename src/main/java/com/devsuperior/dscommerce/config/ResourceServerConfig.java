@@ -1,9 +1,14 @@
 package com.devsuperior.dscommerce.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.Ordered;
@@ -12,9 +17,13 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -24,12 +33,14 @@ import java.util.Arrays;
 
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity
 public class ResourceServerConfig {
 
 	@Value("${cors.origins}")
 	private String corsOrigins;
 
+	@Value("${" + AuthorizationMode.PROPERTY + "}")
+	private String authorizationMode;
+
 	@Bean
 	@Profile("test")
 	@Order(1)
@@ -40,17 +51,68 @@ public class ResourceServerConfig {
 		return http.build();
 	}
 
+	// Catalog reads are anonymous: no bearer token resolution, JWT decoding, authorization,
+	// session or security context persistence. A token sent along is simply ignored.
+	@Bean
+	@Order(0)
+	@ConditionalOnProperty(value = "security.public-chain.enabled", havingValue = "true", matchIfMissing = true)
+	public SecurityFilterChain publicSecurityFilterChain(HttpSecurity http) throws Exception {
+
+		http.securityMatcher(publicCatalogRequests());
+		http.csrf(csrf -> csrf.disable());
+		http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+		http.securityContext(securityContext -> securityContext.disable());
+		http.requestCache(requestCache -> requestCache.disable());
+		http.anonymous(anonymous -> anonymous.disable());
+		http.servletApi(servletApi -> servletApi.disable());
+		http.exceptionHandling(exceptionHandling -> exceptionHandling.disable());
+		http.logout(logout -> logout.disable());
+		return http.build();
+	}
+
 	@Bean
 	@Order(3)
 	public SecurityFilterChain rsSecurityFilterChain(HttpSecurity http) throws Exception {
 
 		http.csrf(csrf -> csrf.disable());
-		http.authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll());
+		http.authorizeHttpRequests(authorize -> {
+			// health is probed anonymously; metrics and any endpoint exposed later are for admins, in either mode
+			authorize.requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll();
+			authorize.requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority("ROLE_ADMIN");
+			if (AuthorizationMode.parse(authorizationMode) == AuthorizationMode.RULES) {
+				for (AuthorizationRules.Rule rule : AuthorizationRules.RULES) {
+					authorize.requestMatchers(rule.getMatcher()).access(rule.getManager());
+				}
+				// a write route missing from the table is closed to everyone rather than open to anyone
+				authorize.dispatcherTypeMatchers(DispatcherType.ERROR).permitAll();
+				authorize.requestMatchers(new AntPathRequestMatcher("/**", "GET"), new AntPathRequestMatcher("/**", "HEAD"))
+						.permitAll();
+				authorize.anyRequest().denyAll();
+			} else {
+				authorize.anyRequest().permitAll();
+			}
+		});
 		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
-		http.cors(cors -> cors.configurationSource(corsConfigurationSource()));
+		// CORS is handled once, ahead of every chain, by the corsFilter registration below
 		return http.build();
 	}
 
+	// listed one by one: a GET route added under /products must not become public by accident
+	private RequestMatcher publicCatalogRequests() {
+		return new OrRequestMatcher(
+				new AntPathRequestMatcher("/products", "GET"),
+				new AntPathRequestMatcher("/products/suggest", "GET"),
+				new AntPathRequestMatcher("/products/{id:\\d+}", "GET"),
+				new AntPathRequestMatcher("/categories", "GET"));
+	}
+
+	// @PreAuthorize is only evaluated when the route table is not in use
+	@Configuration
+	@EnableMethodSecurity
+	@Conditional(AuthorizationMode.AnnotationsCondition.class)
+	static class MethodSecurityConfig {
+	}
+
 	@Bean
 	public JwtAuthenticationConverter jwtAuthenticationConverter() {
 		JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
@@ -0,0 +1,27 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.services.TokenRevocationService;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+public class RevokedTokenValidator implements OAuth2TokenValidator<Jwt> {
+
+	private static final OAuth2Error REVOKED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Token revoked", null);
+
+	private final TokenRevocationService tokenRevocationService;
+
+	public RevokedTokenValidator(TokenRevocationService tokenRevocationService) {
+		this.tokenRevocationService = tokenRevocationService;
+	}
+
+	@Override
+	public OAuth2TokenValidatorResult validate(Jwt jwt) {
+		if (tokenRevocationService.isRevoked(jwt)) {
+			return OAuth2TokenValidatorResult.failure(REVOKED);
+		}
+		return OAuth2TokenValidatorResult.success();
+	}
+}
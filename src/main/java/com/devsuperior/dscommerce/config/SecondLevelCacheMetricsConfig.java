@@ -0,0 +1,47 @@
+package com.devsuperior.dscommerce.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes hits, misses and the hit ratio of every Hibernate second-level cache region, query
+ * cache regions included, tagged by region. Needs hibernate.generate_statistics.
+ */
+@Configuration
+public class SecondLevelCacheMetricsConfig {
+
+	@Bean
+	public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+		return registry -> {
+			Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+			for (String region : statistics.getSecondLevelCacheRegionNames()) {
+				CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+				if (regionStatistics == null) {
+					continue;
+				}
+				FunctionCounter.builder("hibernate.cache.requests", regionStatistics, CacheRegionStatistics::getHitCount)
+						.tags("region", region, "result", "hit")
+						.register(registry);
+				FunctionCounter.builder("hibernate.cache.requests", regionStatistics, CacheRegionStatistics::getMissCount)
+						.tags("region", region, "result", "miss")
+						.register(registry);
+				Gauge.builder("hibernate.cache.hit.ratio", regionStatistics, SecondLevelCacheMetricsConfig::hitRatio)
+						.tag("region", region)
+						.register(registry);
+			}
+		};
+	}
+
+	private static double hitRatio(CacheRegionStatistics statistics) {
+		long hits = statistics.getHitCount();
+		long requests = hits + statistics.getMissCount();
+		return requests == 0 ? 0.0 : (double) hits / requests;
+	}
+}
@@ -0,0 +1,35 @@
+package com.devsuperior.dscommerce.config;
+
+import db.csvseed.CsvSeedDataCallback;
+import db.seed.SqlSeedDataCallback;
+import org.flywaydb.core.api.callback.Callback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the sample data loaders as Flyway callbacks, which Spring Boot hands to the Flyway it
+ * configures: seed.data=sql runs db/seed/seed_data.sql, csv loads db/csvseed/data in bulk, and
+ * none, the default, loads nothing. The sample data includes users with known passwords, so only
+ * the test and csvseed profiles opt in. They only load into empty tables, so the setting can
+ * change at any time.
+ */
+@Configuration
+public class SeedDataConfig {
+
+	@Value("${seed.csv-native-load}")
+	private Boolean csvNativeLoad;
+
+	@Bean
+	@ConditionalOnProperty(value = "seed.data", havingValue = "sql")
+	public Callback sqlSeedDataCallback() {
+		return new SqlSeedDataCallback();
+	}
+
+	@Bean
+	@ConditionalOnProperty(value = "seed.data", havingValue = "csv")
+	public Callback csvSeedDataCallback() {
+		return new CsvSeedDataCallback(csvNativeLoad);
+	}
+}
@@ -0,0 +1,31 @@
+package com.devsuperior.dscommerce.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.NullUserCache;
+
+import java.time.Duration;
+
+@Configuration
+public class UserCacheConfig {
+
+	@Value("${security.user-cache.enabled}")
+	private Boolean userCacheEnabled;
+
+	@Value("${security.user-cache.ttl}")
+	private Integer userCacheTtlSeconds;
+
+	@Value("${security.user-cache.max-size}")
+	private Integer userCacheMaxSize;
+
+	@Bean
+	public UserCache userCache(MeterRegistry meterRegistry) {
+		if (!userCacheEnabled) {
+			return new NullUserCache();
+		}
+		return new CaffeineUserCache(Duration.ofSeconds(userCacheTtlSeconds), userCacheMaxSize, meterRegistry);
+	}
+}
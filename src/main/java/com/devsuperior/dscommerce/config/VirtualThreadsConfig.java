@@ -0,0 +1,63 @@
+package com.devsuperior.dscommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs servlet requests and MVC async work, such as the product export stream, on virtual threads
+ * when virtual-threads.enabled is set. Blocking resources are bounded so the unbounded number of
+ * request threads cannot flood them: JDBC through a semaphore sized to the pool, BCrypt through
+ * {@link com.devsuperior.dscommerce.config.customgrant.PasswordVerificationExecutor}.
+ * The semaphore wraps the DataSource the application uses, never the Hikari pools themselves, so
+ * the pools stay injectable by type and keep their metrics. With read/write routing the
+ * {@link ReplicaRoutingConfig} wraps each pool it routes to.
+ */
+@Configuration
+@ConditionalOnProperty(value = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+		return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	@Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	// declares the pool Boot would otherwise create, so the limit can sit in front of it
+	@Configuration
+	@ConditionalOnProperty(value = "datasource.routing.enabled", havingValue = "false", matchIfMissing = true)
+	static class SingleDataSourceConfig {
+
+		@Bean
+		@ConfigurationProperties("spring.datasource.hikari")
+		public HikariDataSource pooledDataSource(DataSourceProperties properties) {
+			HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+			if (StringUtils.hasText(properties.getName())) {
+				dataSource.setPoolName(properties.getName());
+			}
+			return dataSource;
+		}
+
+		@Bean
+		@Primary
+		public DataSource dataSource(@Qualifier("pooledDataSource") HikariDataSource pool) {
+			return ConcurrencyLimitedDataSource.limiting(pool);
+		}
+	}
+}
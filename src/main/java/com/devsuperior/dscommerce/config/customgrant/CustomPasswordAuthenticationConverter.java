@@ -69,7 +69,9 @@ public class CustomPasswordAuthenticationConverter implements AuthenticationConv
         });
 
         Authentication clientPrincipal = SecurityContextHolder.getContext().getAuthentication();
-        return new CustomPasswordAuthenticationToken(clientPrincipal, requestedScopes, additionalParameters);
+        //atras de um balanceador getRemoteAddr e o IP do proxy, a menos que server.forward-headers-strategy
+        //esteja em native ou framework para que o X-Forwarded-For do proxy confiavel seja aplicado
+        return new CustomPasswordAuthenticationToken(clientPrincipal, requestedScopes, additionalParameters, request.getRemoteAddr());
     }
 
     private static MultiValueMap<String, String> getParameters(HttpServletRequest request) {
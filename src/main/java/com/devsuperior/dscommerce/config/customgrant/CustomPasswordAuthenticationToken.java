@@ -17,9 +17,15 @@ public class CustomPasswordAuthenticationToken extends OAuth2AuthorizationGrantA
 	private final String username;
 	private final String password;
 	private final Set<String> scopes;
+	private final String clientIp;
 	
 	public CustomPasswordAuthenticationToken(Authentication clientPrincipal,
 			@Nullable Set<String> scopes, @Nullable Map<String, Object> additionalParameters) {
+		this(clientPrincipal, scopes, additionalParameters, null);
+	}
+
+	public CustomPasswordAuthenticationToken(Authentication clientPrincipal,
+			@Nullable Set<String> scopes, @Nullable Map<String, Object> additionalParameters, @Nullable String clientIp) {
 		
 		super(new AuthorizationGrantType("password"), clientPrincipal, additionalParameters);
 		
@@ -27,6 +33,7 @@ public class CustomPasswordAuthenticationToken extends OAuth2AuthorizationGrantA
 		this.password = (String) additionalParameters.get("password");
 		this.scopes = Collections.unmodifiableSet(
 				scopes != null ? new HashSet<>(scopes) : Collections.emptySet());
+		this.clientIp = clientIp;
 	}
 
 	public String getUsername() {
@@ -40,4 +47,9 @@ public class CustomPasswordAuthenticationToken extends OAuth2AuthorizationGrantA
 	public Set<String> getScopes() {
 		return this.scopes;
 	}
+
+	@Nullable
+	public String getClientIp() {
+		return this.clientIp;
+	}
 }
@@ -0,0 +1,49 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.http.converter.OAuth2ErrorHttpMessageConverter;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+
+import java.io.IOException;
+
+/**
+ * Writes token endpoint errors like the default handler, but answers overload with 503
+ * and throttled logins with 429, so clients back off instead of treating them as bad credentials.
+ */
+public class CustomTokenErrorResponseHandler implements AuthenticationFailureHandler {
+
+	private final HttpMessageConverter<OAuth2Error> errorHttpResponseConverter = new OAuth2ErrorHttpMessageConverter();
+	private final long retryAfterSeconds;
+
+	public CustomTokenErrorResponseHandler(long retryAfterSeconds) {
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	@Override
+	public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+			AuthenticationException exception) throws IOException {
+
+		OAuth2Error error = ((OAuth2AuthenticationException) exception).getError();
+		ServletServerHttpResponse httpResponse = new ServletServerHttpResponse(response);
+
+		if (OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE.equals(error.getErrorCode())) {
+			httpResponse.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+			httpResponse.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+		} else if (CustomPasswordAuthenticationProvider.TOO_MANY_REQUESTS.equals(error.getErrorCode())) {
+			httpResponse.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+			httpResponse.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+		} else {
+			httpResponse.setStatusCode(HttpStatus.BAD_REQUEST);
+		}
+		errorHttpResponseConverter.write(error, null, httpResponse);
+	}
+}
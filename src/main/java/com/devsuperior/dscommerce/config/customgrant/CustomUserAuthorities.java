@@ -2,16 +2,25 @@ package com.devsuperior.dscommerce.config.customgrant;
 
 import org.springframework.security.core.GrantedAuthority;
 
+import java.time.Instant;
 import java.util.Collection;
 
 public class CustomUserAuthorities {
 
+	private Long userId;
 	private String username;
 	private Collection<? extends GrantedAuthority> authorities;
+	private Instant authTime;
 
-	public CustomUserAuthorities(String username, Collection<? extends GrantedAuthority> authorities) {
+	public CustomUserAuthorities(Long userId, String username, Collection<? extends GrantedAuthority> authorities, Instant authTime) {
+		this.userId = userId;
 		this.username = username;
 		this.authorities = authorities;
+		this.authTime = authTime;
+	}
+
+	public Long getUserId() {
+		return userId;
 	}
 
 	public String getUsername() {
@@ -21,4 +30,8 @@ public class CustomUserAuthorities {
 	public Collection<? extends GrantedAuthority> getAuthorities() {
 		return authorities;
 	}
+
+	public Instant getAuthTime() {
+		return authTime;
+	}
 }
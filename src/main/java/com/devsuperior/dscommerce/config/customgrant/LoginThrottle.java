@@ -0,0 +1,184 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts failed logins per username and per client IP over a sliding window and tells the
+ * token endpoint when to stop trying. Counters live in lock-striped, size-bounded maps, so
+ * concurrent logins for different keys rarely contend and memory stays flat under attack.
+ * The window is approximated from the current and previous fixed windows, weighted by how
+ * far the current one has progressed.
+ */
+public class LoginThrottle {
+
+	private static final int STRIPES = 64;
+	private static final String USER_PREFIX = "u:";
+	private static final String IP_PREFIX = "ip:";
+
+	private final int maxFailuresPerUser;
+	private final int maxFailuresPerIp;
+	private final long windowMillis;
+	private final int maxKeysPerStripe;
+	private final LongSupplier clock;
+	private final Stripe[] stripes = new Stripe[STRIPES];
+	private final Counter throttledByUser;
+	private final Counter throttledByIp;
+	private final Counter failures;
+
+	public LoginThrottle(int maxFailuresPerUser, int maxFailuresPerIp, Duration window, int maxKeys,
+			MeterRegistry meterRegistry) {
+		this(maxFailuresPerUser, maxFailuresPerIp, window, maxKeys, meterRegistry, System::currentTimeMillis);
+	}
+
+	LoginThrottle(int maxFailuresPerUser, int maxFailuresPerIp, Duration window, int maxKeys,
+			MeterRegistry meterRegistry, LongSupplier clock) {
+
+		Assert.isTrue(maxFailuresPerUser > 0 && maxFailuresPerIp > 0, "failure limits must be greater than zero");
+		Assert.isTrue(!window.isNegative() && !window.isZero(), "window must be positive");
+		this.maxFailuresPerUser = maxFailuresPerUser;
+		this.maxFailuresPerIp = maxFailuresPerIp;
+		this.windowMillis = window.toMillis();
+		this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+		this.clock = clock;
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Stripe();
+		}
+
+		this.throttledByUser = Counter.builder("auth.login.throttled").tag("key", "username")
+				.description("Login attempts rejected by the failure throttle").register(meterRegistry);
+		this.throttledByIp = Counter.builder("auth.login.throttled").tag("key", "ip")
+				.description("Login attempts rejected by the failure throttle").register(meterRegistry);
+		this.failures = Counter.builder("auth.login.failures")
+				.description("Failed login attempts").register(meterRegistry);
+		Gauge.builder("auth.login.throttle.keys", this, LoginThrottle::trackedKeys)
+				.description("Usernames and client IPs with recent login failures").register(meterRegistry);
+	}
+
+	public boolean isThrottled(String username, String clientIp) {
+		long now = clock.getAsLong();
+		if (username != null && failuresInWindow(userKey(username), now) >= maxFailuresPerUser) {
+			throttledByUser.increment();
+			return true;
+		}
+		if (clientIp != null && failuresInWindow(IP_PREFIX + clientIp, now) >= maxFailuresPerIp) {
+			throttledByIp.increment();
+			return true;
+		}
+		return false;
+	}
+
+	public void recordFailure(String username, String clientIp) {
+		long now = clock.getAsLong();
+		failures.increment();
+		if (username != null) {
+			increment(userKey(username), now);
+		}
+		if (clientIp != null) {
+			increment(IP_PREFIX + clientIp, now);
+		}
+	}
+
+	public void recordSuccess(String username) {
+		if (username != null) {
+			String key = userKey(username);
+			Stripe stripe = stripeFor(key);
+			synchronized (stripe) {
+				stripe.windows.remove(key);
+			}
+		}
+	}
+
+	public long retryAfterSeconds() {
+		return Math.max(1, windowMillis / 1000);
+	}
+
+	int trackedKeys() {
+		int total = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				total += stripe.windows.size();
+			}
+		}
+		return total;
+	}
+
+	private double failuresInWindow(String key, long now) {
+		Stripe stripe = stripeFor(key);
+		synchronized (stripe) {
+			Window window = stripe.windows.get(key);
+			return window == null ? 0 : window.estimate(now, windowMillis);
+		}
+	}
+
+	private void increment(String key, long now) {
+		Stripe stripe = stripeFor(key);
+		synchronized (stripe) {
+			Window window = stripe.windows.get(key);
+			if (window == null) {
+				window = new Window(now - now % windowMillis);
+				stripe.windows.put(key, window);
+			}
+			window.advance(now, windowMillis);
+			window.current++;
+		}
+	}
+
+	// emails are matched regardless of case, so ALEX@ and alex@ must share one budget
+	private static String userKey(String username) {
+		return USER_PREFIX + username.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private Stripe stripeFor(String key) {
+		int h = key.hashCode();
+		return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+	}
+
+	private class Stripe {
+
+		private final Map<String, Window> windows = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+				return size() > maxKeysPerStripe;
+			}
+		};
+	}
+
+	private static class Window {
+
+		private long start;
+		private int previous;
+		private int current;
+
+		Window(long start) {
+			this.start = start;
+		}
+
+		void advance(long now, long windowMillis) {
+			long elapsedWindows = (now - start) / windowMillis;
+			if (elapsedWindows >= 2) {
+				previous = 0;
+				current = 0;
+				start += elapsedWindows * windowMillis;
+			} else if (elapsedWindows == 1) {
+				previous = current;
+				current = 0;
+				start += windowMillis;
+			}
+		}
+
+		double estimate(long now, long windowMillis) {
+			advance(now, windowMillis);
+			double weight = 1.0 - (double) (now - start) / windowMillis;
+			return previous * weight + current;
+		}
+	}
+}
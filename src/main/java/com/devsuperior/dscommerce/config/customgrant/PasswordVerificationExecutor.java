@@ -0,0 +1,100 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hash comparisons on a small pool sized to the cores and rejects the request
+ * immediately with {@code temporarily_unavailable} once the pool and its queue are full. The
+ * calling servlet thread still waits for its hash, so each login in flight holds a servlet thread
+ * as well as a pool slot: the servlet pool is protected by that early rejection, which caps the
+ * logins in flight at threads plus queue, not by freeing the caller. The queue therefore defaults
+ * to the thread count.
+ */
+public class PasswordVerificationExecutor implements DisposableBean {
+
+	private static final String ERROR_URI = "https://datatracker.ietf.org/doc/html/rfc6749#section-5.2";
+
+	private final PasswordEncoder passwordEncoder;
+	private final ThreadPoolExecutor executor;
+	private final Timer hashTimer;
+	private final Counter rejectedCounter;
+
+	public PasswordVerificationExecutor(PasswordEncoder passwordEncoder, int threads, int queueCapacity,
+			MeterRegistry meterRegistry) {
+
+		Assert.notNull(passwordEncoder, "PasswordEncoder cannot be null");
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		// a negative capacity queues as many verifications as there are threads
+		int capacity = queueCapacity < 0 ? poolSize : queueCapacity;
+		BlockingQueue<Runnable> queue = capacity > 0 ? new ArrayBlockingQueue<>(capacity) : new SynchronousQueue<>();
+
+		this.passwordEncoder = passwordEncoder;
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue,
+				new PasswordVerifierThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+		this.hashTimer = Timer.builder("auth.password.hash")
+				.description("Time spent verifying a password hash")
+				.register(meterRegistry);
+		this.rejectedCounter = Counter.builder("auth.password.rejected")
+				.description("Password verifications rejected because the pool was saturated")
+				.register(meterRegistry);
+		Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+				.description("Password verifications waiting for a thread")
+				.register(meterRegistry);
+		Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+				.description("Password verifications in progress")
+				.register(meterRegistry);
+	}
+
+	public boolean matches(String rawPassword, String encodedPassword) {
+
+		Future<Boolean> result;
+		try {
+			result = executor.submit(() -> hashTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+		} catch (RejectedExecutionException e) {
+			rejectedCounter.increment();
+			OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE,
+					"Too many concurrent logins, try again later.", ERROR_URI);
+			throw new OAuth2AuthenticationException(error);
+		}
+
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new OAuth2AuthenticationException(OAuth2ErrorCodes.SERVER_ERROR);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	private static class PasswordVerifierThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "password-verifier-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.devsuperior.dscommerce.controllers;
+
+import com.devsuperior.dscommerce.services.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/auth")
+public class AuthController {
+
+    @Autowired
+    private TokenRevocationService service;
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+    @PostMapping(value = "/logout")
+    public ResponseEntity<Void> logout() {
+        service.revokeCurrentToken();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/revoke")
+    public ResponseEntity<Void> revokeUserTokens(@RequestParam(name = "username") String username) {
+        service.revokeUserTokens(username);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/unlock")
+    public ResponseEntity<Void> unlockUser(@RequestParam(name = "username") String username) {
+        service.unlockUser(username);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,18 +1,37 @@
 package com.devsuperior.dscommerce.controllers;
 
 import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductImportResultDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.ProductPatchDTO;
+import com.devsuperior.dscommerce.dto.ProductPriceUpdateDTO;
+import com.devsuperior.dscommerce.dto.ProductPriceUpdateResultDTO;
+import com.devsuperior.dscommerce.dto.ProductSuggestionDTO;
+import com.devsuperior.dscommerce.services.ProductFullTextSearchService;
+import com.devsuperior.dscommerce.services.ProductFuzzySearchService;
+import com.devsuperior.dscommerce.services.ProductImportService;
+import com.devsuperior.dscommerce.services.ProductPriceService;
 import com.devsuperior.dscommerce.services.ProductService;
+import com.devsuperior.dscommerce.services.ProductSuggestService;
+import com.devsuperior.dscommerce.services.exceptions.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Semaphore;
 
 @RestController
 @RequestMapping(value = "/products")
@@ -21,6 +40,32 @@ public class ProductController {
     @Autowired
     private ProductService service;
 
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductPriceService priceService;
+
+    @Autowired
+    private ProductSuggestService suggestService;
+
+    @Autowired
+    private ProductFuzzySearchService fuzzySearchService;
+
+    @Autowired
+    private ProductFullTextSearchService fullTextSearchService;
+
+    @Value("${products.export.max-concurrent}")
+    private Integer exportMaxConcurrent;
+
+    //cada exportacao segura uma conexao e uma transacao ate o fim do stream
+    private Semaphore exportPermits;
+
+    @PostConstruct
+    void init() {
+        exportPermits = new Semaphore(exportMaxConcurrent);
+    }
+
     @GetMapping(value = "/{id}")
     public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
         ProductDTO dto = service.findById(id);
@@ -31,11 +76,39 @@ public class ProductController {
     @GetMapping
     public ResponseEntity<Page<ProductMinDTO>> findAll(
             @RequestParam(name = "name", defaultValue = "") String name,
+            @RequestParam(name = "mode", defaultValue = "PREFIX") ProductService.SearchMode mode,
             Pageable pageable) {
-        Page<ProductMinDTO> dto = service.findAll(name, pageable);
+        Page<ProductMinDTO> dto = switch (mode) {
+            case PREFIX -> service.findAll(name, pageable);
+            case FUZZY -> fuzzySearchService.search(name, pageable);
+            case FULLTEXT -> fullTextSearchService.search(name, pageable);
+        };
+        return ResponseEntity.ok(dto);
+    }
+
+    @GetMapping(value = "/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggest(@RequestParam(name = "q", defaultValue = "") String q) {
+        List<ProductSuggestionDTO> dto = suggestService.suggest(q);
         return ResponseEntity.ok(dto);
     }
 
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        if (!exportPermits.tryAcquire()) {
+            throw new ServiceUnavailableException("Limite de exportacoes simultaneas atingido");
+        }
+        //a permissao e devolvida quando o stream termina, com ou sem erro
+        StreamingResponseBody body = out -> {
+            try {
+                service.exportTo(out);
+            } finally {
+                exportPermits.release();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
     @PostMapping
     public ResponseEntity<ProductDTO> insert(@Valid @RequestBody ProductDTO dto) {
@@ -45,6 +118,25 @@ public class ProductController {
         return ResponseEntity.created(uri).body(dto);
     }
 
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<ProductImportResultDTO> importProducts(
+            @RequestHeader(value = "Content-Type") MediaType contentType,
+            @RequestParam(name = "upsert", defaultValue = "false") boolean upsert,
+            InputStream body) throws IOException {
+        ProductImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? ProductImportService.Format.NDJSON : ProductImportService.Format.CSV;
+        ProductImportResultDTO result = importService.importProducts(body, format, upsert);
+        return ResponseEntity.ok(result);
+    }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @PutMapping(value = "/prices")
+    public ResponseEntity<ProductPriceUpdateResultDTO> updatePrices(@Valid @RequestBody ProductPriceUpdateDTO dto) {
+        ProductPriceUpdateResultDTO result = priceService.updatePrices(dto);
+        return ResponseEntity.ok(result);
+    }
+
     @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
     @PutMapping(value = "/{id}")
     public ResponseEntity<ProductDTO> update(@PathVariable Long id, @Valid @RequestBody ProductDTO dto) {
@@ -52,6 +144,13 @@ public class ProductController {
         return ResponseEntity.ok(dto);
     }
 
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @PatchMapping(value = "/{id}")
+    public ResponseEntity<ProductDTO> patch(@PathVariable Long id, @Valid @RequestBody ProductPatchDTO dto) {
+        ProductDTO result = service.patch(id, dto);
+        return ResponseEntity.ok(result);
+    }
+
     @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
     @DeleteMapping(value = "/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
@@ -20,10 +20,10 @@ public class OrderItemDTO {
 
     public OrderItemDTO(OrderItem entity) {
         productId = entity.getProduct().getId();
-        name = entity.getProduct().getName();
+        name = entity.getProductName();
         price = entity.getPrice();
         quantity = entity.getQuantity();
-        imgUrl = entity.getProduct().getImgUrl();
+        imgUrl = entity.getImgUrl();
     }
 
     public Long getProductid() {
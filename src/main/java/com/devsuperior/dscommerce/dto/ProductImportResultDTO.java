@@ -0,0 +1,55 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportResultDTO {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long processed;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<ImportLineError> errors = new ArrayList<>();
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    //somente os primeiros erros sao listados, o total fica em failed
+    public List<ImportLineError> getErrors() {
+        return errors;
+    }
+
+    public void addProcessed() {
+        processed++;
+    }
+
+    public void addInserted() {
+        inserted++;
+    }
+
+    public void addUpdated() {
+        updated++;
+    }
+
+    public void addError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportLineError(line, message));
+        }
+    }
+}
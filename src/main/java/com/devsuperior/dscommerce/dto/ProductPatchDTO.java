@@ -0,0 +1,51 @@
+package com.devsuperior.dscommerce.dto;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+//campos nulos ficam como estao no produto
+public class ProductPatchDTO {
+
+    @Size(min = 3, max = 80, message = "Nome precisa ter 3 a 80 caracteres")
+    private String name;
+    @Size(min = 10, message = "Descriçao precisa ter no minimo 10 caracteres")
+    private String description;
+    @Positive(message = "O preço deve ser positivo")
+    private Double price;
+    private String imgUrl;
+    @Size(min = 1, message = "Deve ter uma categoria")
+    private List<CategoryDTO> categories;
+
+    public ProductPatchDTO() {
+    }
+
+    public ProductPatchDTO(String name, String description, Double price, String imgUrl, List<CategoryDTO> categories) {
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.imgUrl = imgUrl;
+        this.categories = categories;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public String getImgUrl() {
+        return imgUrl;
+    }
+
+    public List<CategoryDTO> getCategories() {
+        return categories;
+    }
+}
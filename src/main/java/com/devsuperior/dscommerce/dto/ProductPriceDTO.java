@@ -0,0 +1,29 @@
+package com.devsuperior.dscommerce.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class ProductPriceDTO {
+
+    @NotNull(message = "Campo requerido")
+    private Long id;
+    @NotNull(message = "Campo requerido")
+    @Positive(message = "O preço deve ser positivo")
+    private Double price;
+
+    public ProductPriceDTO() {
+    }
+
+    public ProductPriceDTO(Long id, Double price) {
+        this.id = id;
+        this.price = price;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+}
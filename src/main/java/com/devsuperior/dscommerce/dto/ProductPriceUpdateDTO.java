@@ -0,0 +1,48 @@
+package com.devsuperior.dscommerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+
+import java.util.List;
+
+//ou a lista de precos por produto, ou a regra percentual para uma categoria
+public class ProductPriceUpdateDTO {
+
+    @Valid
+    private List<ProductPriceDTO> prices;
+    private Long categoryId;
+    @DecimalMin(value = "-100", inclusive = false, message = "O percentual deve ser maior que -100")
+    private Double percent;
+
+    public ProductPriceUpdateDTO() {
+    }
+
+    public ProductPriceUpdateDTO(List<ProductPriceDTO> prices, Long categoryId, Double percent) {
+        this.prices = prices;
+        this.categoryId = categoryId;
+        this.percent = percent;
+    }
+
+    public List<ProductPriceDTO> getPrices() {
+        return prices;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public Double getPercent() {
+        return percent;
+    }
+
+    public boolean hasCategoryRule() {
+        return categoryId != null && percent != null;
+    }
+
+    @AssertTrue(message = "Informe a lista de preços ou a categoria e o percentual")
+    public boolean isPricesOrCategoryRule() {
+        boolean hasPrices = prices != null && !prices.isEmpty();
+        return hasPrices != hasCategoryRule();
+    }
+}
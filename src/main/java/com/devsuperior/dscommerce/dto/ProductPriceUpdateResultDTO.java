@@ -0,0 +1,26 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductPriceUpdateResultDTO {
+
+    private long updated;
+    private List<Long> notFound = new ArrayList<>();
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public List<Long> getNotFound() {
+        return notFound;
+    }
+
+    public void addUpdated(long count) {
+        updated += count;
+    }
+
+    public void addNotFound(Long id) {
+        notFound.add(id);
+    }
+}
@@ -1,5 +1,6 @@
 package com.devsuperior.dscommerce.entities;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
@@ -16,6 +17,11 @@ public class OrderItem {
     private Integer quantity;
     private Double price;
 
+    //nome e imagem como o cliente viu na compra, para ler o pedido sem carregar o produto
+    @Column(name = "product_name")
+    private String productName;
+    private String imgUrl;
+
     public OrderItem() {
     }
 
@@ -24,6 +30,8 @@ public class OrderItem {
         id.setProduct(product);
         this.quantity = quantity;
         this.price = price;
+        this.productName = product.getName();
+        this.imgUrl = product.getImgUrl();
     }
 
     public Order getOrder() {
@@ -42,7 +50,6 @@ public class OrderItem {
         id.setProduct(product);
     }
 
-
     public Integer getQuantity() {
         return quantity;
     }
@@ -59,6 +66,22 @@ public class OrderItem {
         this.price = price;
     }
 
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getImgUrl() {
+        return imgUrl;
+    }
+
+    public void setImgUrl(String imgUrl) {
+        this.imgUrl = imgUrl;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,9 +1,12 @@
 package com.devsuperior.dscommerce.entities;
 
 import jakarta.persistence.Embeddable;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 
+import java.util.Objects;
+
 @Embeddable
 public class OrderItemPK {
 
@@ -11,7 +14,7 @@ public class OrderItemPK {
     @JoinColumn(name = "order_id")
     private Order order;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
@@ -34,19 +37,27 @@ public class OrderItemPK {
         this.product = product;
     }
 
+    //compara pelos ids, que o proxy do produto devolve sem ir ao banco
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof OrderItemPK that)) return false;
 
-        if (getOrder() != null ? !getOrder().equals(that.getOrder()) : that.getOrder() != null) return false;
-        return getProduct() != null ? getProduct().equals(that.getProduct()) : that.getProduct() == null;
+        return Objects.equals(orderId(), that.orderId()) && Objects.equals(productId(), that.productId());
     }
 
     @Override
     public int hashCode() {
-        int result = getOrder() != null ? getOrder().hashCode() : 0;
-        result = 31 * result + (getProduct() != null ? getProduct().hashCode() : 0);
+        int result = Objects.hashCode(orderId());
+        result = 31 * result + Objects.hashCode(productId());
         return result;
     }
+
+    private Long orderId() {
+        return getOrder() != null ? getOrder().getId() : null;
+    }
+
+    private Long productId() {
+        return getProduct() != null ? getProduct().getId() : null;
+    }
 }
@@ -1,11 +1,18 @@
 package com.devsuperior.dscommerce.entities;
 
+import com.devsuperior.dscommerce.util.TextNormalizer;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @Table(name = "tb_product")
 public class Product {
 
@@ -14,12 +21,19 @@ public class Product {
     private Long id;
     private String name;
 
+    @Column(name = "search_name")
+    private String searchName;
+
     @Column(columnDefinition = "TEXT")
     private String description;
     private Double price;
     private String imgUrl;
 
+    @Column(name = "updated_at", columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    private Instant updatedAt;
+
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product-categories")
     @JoinTable(name = "tb_product_category",
             joinColumns = @JoinColumn(name = "product_id"),
             inverseJoinColumns = @JoinColumn(name = "category_id"))
@@ -55,6 +69,10 @@ public class Product {
         this.name = name;
     }
 
+    public String getSearchName() {
+        return searchName;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -79,10 +97,22 @@ public class Product {
         this.imgUrl = imgUrl;
     }
 
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     public Set<Category> getCategories() {
         return categories;
     }
 
+    //mantem a coluna de busca em sincronia com o nome e marca o momento de cada gravacao
+    @PrePersist
+    @PreUpdate
+    private void beforeWrite() {
+        searchName = TextNormalizer.normalize(name);
+        updatedAt = Instant.now();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
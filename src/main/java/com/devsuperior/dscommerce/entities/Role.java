@@ -1,9 +1,12 @@
 package com.devsuperior.dscommerce.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "role")
 @Table(name = "tb_role")
 public class Role implements GrantedAuthority {
 
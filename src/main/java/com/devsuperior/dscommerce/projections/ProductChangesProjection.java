@@ -0,0 +1,9 @@
+package com.devsuperior.dscommerce.projections;
+
+import java.time.Instant;
+
+public interface ProductChangesProjection {
+
+	Long getTotal();
+	Instant getLastUpdate();
+}
@@ -0,0 +1,8 @@
+package com.devsuperior.dscommerce.projections;
+
+public interface ProductPopularityProjection {
+
+	Long getId();
+	String getName();
+	Long getPopularity();
+}
@@ -0,0 +1,11 @@
+package com.devsuperior.dscommerce.projections;
+
+import java.time.Instant;
+
+public interface ProductTextProjection {
+
+	Long getId();
+	String getName();
+	String getDescription();
+	Instant getUpdatedAt();
+}
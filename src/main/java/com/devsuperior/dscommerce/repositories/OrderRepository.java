@@ -2,10 +2,14 @@ package com.devsuperior.dscommerce.repositories;
 
 import com.devsuperior.dscommerce.entities.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    @Query("SELECT obj.client.id FROM Order obj WHERE obj.id = :id")
+    Optional<Long> findClientIdById(Long id);
 }
@@ -1,16 +1,104 @@
 package com.devsuperior.dscommerce.repositories;
 
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.ProductChangesProjection;
+import com.devsuperior.dscommerce.projections.ProductExportProjection;
+import com.devsuperior.dscommerce.projections.ProductNameProjection;
+import com.devsuperior.dscommerce.projections.ProductPopularityProjection;
+import com.devsuperior.dscommerce.projections.ProductTextProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    @Query("SELECT obj FROM Product obj "
-            + "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) ")
-    Page<Product> searchByName(String name, Pageable pageable);
+    //monta o ProductMinDTO na propria consulta, sem carregar a entidade nem a descricao
+    //o padrao ja vem normalizado (TextNormalizer) e terminado em %, para o banco usar o indice de search_name
+    @Query(value = "SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) "
+            + "FROM Product obj "
+            + "WHERE obj.searchName LIKE :pattern ESCAPE '!' ",
+            countQuery = "SELECT COUNT(obj) FROM Product obj "
+            + "WHERE obj.searchName LIKE :pattern ESCAPE '!' ")
+    Page<ProductMinDTO> searchByName(String pattern, Pageable pageable);
+
+    //uma linha por produto e categoria, ordenada por produto, lida com cursor forward-only
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query(nativeQuery = true, value = """
+            	SELECT tb_product.id, tb_product.name, tb_product.description, tb_product.price, tb_product.img_url AS imgUrl,
+            	tb_category.id AS categoryId, tb_category.name AS categoryName
+            	FROM tb_product
+            	LEFT JOIN tb_product_category ON tb_product_category.product_id = tb_product.id
+            	LEFT JOIN tb_category ON tb_category.id = tb_product_category.category_id
+            	ORDER BY tb_product.id, tb_category.id
+            """)
+    Stream<ProductExportProjection> streamAllForExport();
+
+    //pagina de resultado de um indice em memoria; a ordem e refeita pelo chamador
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) "
+            + "FROM Product obj WHERE obj.id IN :ids")
+    List<ProductMinDTO> searchMinByIds(List<Long> ids);
+
+    @Query("SELECT obj.id AS id, obj.name AS name FROM Product obj")
+    List<ProductNameProjection> findAllNames();
+
+    @Query("SELECT obj.id AS id, obj.name AS name, obj.description AS description, obj.updatedAt AS updatedAt "
+            + "FROM Product obj WHERE obj.id = :id")
+    Optional<ProductTextProjection> findTextById(Long id);
+
+    @Query("SELECT obj.id AS id, obj.name AS name, obj.description AS description, obj.updatedAt AS updatedAt "
+            + "FROM Product obj")
+    Stream<ProductTextProjection> streamAllText();
+
+    //so as linhas gravadas desde um momento, pelo indice de updated_at
+    @Query("SELECT obj.id AS id, obj.name AS name, obj.description AS description, obj.updatedAt AS updatedAt "
+            + "FROM Product obj WHERE obj.updatedAt >= :since")
+    Stream<ProductTextProjection> streamTextChangedSince(Instant since);
+
+    //quantidade e ultima gravacao: mudam com qualquer inclusao, remocao ou edicao, sem ler as linhas
+    @Query("SELECT COUNT(obj) AS total, MAX(obj.updatedAt) AS lastUpdate FROM Product obj")
+    ProductChangesProjection summarizeChanges();
+
+    @Query("SELECT obj.id FROM Product obj")
+    List<Long> findAllIds();
+
+    //popularidade = unidades vendidas, usada para ordenar as sugestoes de busca
+    @Query("SELECT obj.id AS id, obj.name AS name, COALESCE(SUM(item.quantity), 0) AS popularity "
+            + "FROM Product obj LEFT JOIN obj.items item "
+            + "GROUP BY obj.id, obj.name")
+    List<ProductPopularityProjection> findAllWithPopularity();
+
+    //proxima pagina de ids da categoria depois de lastId, pelo indice (category_id, product_id)
+    @Query(nativeQuery = true, value = """
+            	SELECT product_id FROM tb_product_category
+            	WHERE category_id = :categoryId AND product_id > :lastId
+            	ORDER BY product_id
+            	LIMIT :limit
+            """)
+    List<Long> findIdsByCategoryAfter(Long categoryId, Long lastId, int limit);
 
+    //aplica o fator em um intervalo de ids, para a atualizacao de uma categoria grande ser feita em lotes
+    //o intervalo vem de findIdsByCategoryAfter, entao tem no maximo um lote de produtos da categoria
+    //declarar tb_product faz o Hibernate invalidar so o cache de produtos, e nao todas as regioes
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_product"))
+    @Query(nativeQuery = true, value = """
+            	UPDATE tb_product SET price = ROUND(price * :factor, 2), updated_at = CURRENT_TIMESTAMP
+            	WHERE id BETWEEN :fromId AND :toId
+            	AND id IN (SELECT product_id FROM tb_product_category WHERE category_id = :categoryId)
+            """)
+    int applyPriceFactorByCategory(Long categoryId, double factor, Long fromId, Long toId);
 
 }
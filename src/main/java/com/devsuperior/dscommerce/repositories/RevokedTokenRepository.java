@@ -0,0 +1,23 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Query("SELECT obj.id FROM RevokedToken obj WHERE obj.expiresAt > :moment")
+    List<String> findActiveIds(Instant moment);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken obj WHERE obj.expiresAt <= :moment")
+    int deleteExpired(Instant moment);
+}
@@ -1,7 +1,7 @@
 package com.devsuperior.dscommerce.services;
 
-import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,13 +11,21 @@ public class AuthService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CustomUserUtil customUserUtil;
+
+    //perfis e id vem do JWT, o banco so e consultado para tokens sem o claim user_id
     public void validateSelfOrAdmin(Long userId) {
-        User me = userService.authenticated();
 
-        if (me.hasRole("ROLE_ADMIN")) {
+        if (customUserUtil.loggedUserHasAuthority("ROLE_ADMIN")) {
             return;
         }
-        if (!me.getId().equals(userId)) {
+
+        Long myId = customUserUtil.getLoggedUserId();
+        if (myId == null) {
+            myId = userService.authenticated().getId();
+        }
+        if (!myId.equals(userId)) {
             throw new ForbiddenException("Acess denied.");
         }
 
@@ -30,9 +30,12 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public OrderDTO findById(Long id) {
+        //autoriza pelo dono do pedido antes de carregar o pedido com seus itens
+        Long clientId = repository.findClientIdById(id).orElseThrow(
+                () -> new ResourceNotFoundException("Recurso não encontrado"));
+        authService.validateSelfOrAdmin(clientId);
         Order order = repository.findById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Recurso não encontrado"));
-        authService.validateSelfOrAdmin(order.getClient().getId());
         return new OrderDTO(order);
 
     }
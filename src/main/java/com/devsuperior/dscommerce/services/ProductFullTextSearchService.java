@@ -0,0 +1,368 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.projections.ProductChangesProjection;
+import com.devsuperior.dscommerce.projections.ProductTextProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
+import com.devsuperior.dscommerce.util.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class ProductFullTextSearchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductFullTextSearchService.class);
+
+    //mudar os campos ou a analise do texto exige subir a versao, para o indice antigo ser reconstruido
+    private static final String SCHEMA_VERSION = "1";
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final float NAME_BOOST = 2.0f;
+
+    private static final String COMMIT_SCHEMA = "schema";
+    private static final String COMMIT_CLEAN = "clean";
+    private static final String COMMIT_FINGERPRINT = "fingerprint";
+
+    private static final Analyzer ANALYZER = new StandardAnalyzer();
+
+    //a reconciliacao rele um pouco antes da ultima gravacao vista: cobre transacoes que gravaram antes e
+    //confirmaram depois, e a diferenca entre os relogios das instancias
+    private static final Duration CHANGE_OVERLAP = Duration.ofMinutes(1);
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${products.fulltext.index-dir}")
+    private String indexDir;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ExecutorService indexer;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean failed;
+
+    //ultima gravacao ja indexada; so a thread do indexador altera depois da abertura
+    private Instant checkpoint;
+
+    //ordena por BM25 no indice e busca no banco so a pagina pedida
+    @Transactional(readOnly = true)
+    public Page<ProductMinDTO> search(String text, Pageable pageable) {
+        Query query = buildQuery(TextNormalizer.normalize(text));
+        if (query == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        List<Long> ids = new ArrayList<>();
+        int total;
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                total = searcher.count(query);
+                int from = (int) Math.min(pageable.getOffset(), total);
+                int to = Math.min(from + pageable.getPageSize(), total);
+                if (from < to) {
+                    ScoreDoc[] hits = searcher.search(query, to).scoreDocs;
+                    StoredFields fields = searcher.storedFields();
+                    for (int i = from; i < hits.length; i++) {
+                        ids.add(Long.valueOf(fields.document(hits[i].doc).get(ID)));
+                    }
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        Map<Long, ProductMinDTO> products = repository.searchMinByIds(ids).stream()
+                .collect(Collectors.toMap(ProductMinDTO::getId, Function.identity()));
+        List<ProductMinDTO> content = ids.stream().map(products::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    //reaproveita o indice em disco so se ele foi fechado de forma limpa com o mesmo conteudo no banco; senao reconstroi
+    @PostConstruct
+    public void open() throws IOException {
+        directory = indexDir == null || indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+        ProductChangesProjection changes = summarizeChanges();
+        String fingerprint = fingerprint(changes);
+        boolean reusable = isReusable(fingerprint);
+        writer = new IndexWriter(directory, new IndexWriterConfig(ANALYZER).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        if (!reusable) {
+            writer.deleteAll();
+            forEachRow(repository::streamAllText, this::addDocument);
+        }
+        checkpoint = changes.getLastUpdate();
+        //enquanto a aplicacao roda o indice fica marcado como sujo; so o fechamento limpo desmarca
+        writer.setLiveCommitData(commitData(false, fingerprint).entrySet());
+        writer.commit();
+        searcherManager = new SearcherManager(writer, null);
+        indexer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-fulltext-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        indexer.shutdown();
+        boolean drained = indexer.awaitTermination(30, TimeUnit.SECONDS);
+        try {
+            if (drained && !failed) {
+                writer.setLiveCommitData(commitData(true, fingerprint(summarizeChanges())).entrySet());
+            }
+            writer.commit();
+        } finally {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    //os eventos so chegam da propria instancia: a reconciliacao periodica traz as gravacoes das outras
+    //e repara eventos perdidos; roda na mesma thread dos eventos, e as buscas seguem no leitor anterior
+    @Scheduled(fixedDelayString = "${products.fulltext.rebuild-interval}", initialDelayString = "${products.fulltext.rebuild-interval}")
+    public void rebuild() {
+        pending.incrementAndGet();
+        try {
+            indexer.execute(this::reconcile);
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+        }
+    }
+
+    //so apos o commit; a gravacao do produto so enfileira, o indice e atualizado em outra thread
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pending.incrementAndGet();
+        try {
+            indexer.execute(() -> apply(event.getId()));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            failed = true;
+        }
+    }
+
+    private void apply(Long id) {
+        try {
+            //le o estado atual, e nao o do evento, para eventos fora de ordem nao desfazerem uma gravacao;
+            //transacao de escrita para ler do primario, e nao de uma replica atrasada
+            Optional<ProductTextProjection> row = new TransactionTemplate(transactionManager)
+                    .execute(status -> repository.findTextById(id));
+            Term term = new Term(ID, id.toString());
+            if (row != null && row.isPresent()) {
+                writer.updateDocument(term, toDocument(row.get()));
+            } else {
+                writer.deleteDocuments(term);
+            }
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            LOG.warn("Falha ao indexar o produto {}; o indice sera reconstruido no proximo inicio", id, e);
+        } finally {
+            //uma importacao publica muitos eventos: so grava e reabre o leitor quando a fila esvazia
+            if (pending.decrementAndGet() == 0) {
+                flush();
+            }
+        }
+    }
+
+    //atualiza so os produtos gravados desde a ultima reconciliacao e remove os que nao existem mais, sem
+    //esvaziar o indice no meio; depois de uma falha rele todas as linhas, que podem ter ficado para tras
+    private void reconcile() {
+        try {
+            boolean full = failed || checkpoint == null;
+            Supplier<Stream<ProductTextProjection>> rows = full
+                    ? repository::streamAllText
+                    : () -> repository.streamTextChangedSince(checkpoint.minus(CHANGE_OVERLAP));
+            forEachRow(rows, row -> {
+                try {
+                    writer.updateDocument(new Term(ID, row.getId().toString()), toDocument(row));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (checkpoint == null || row.getUpdatedAt().isAfter(checkpoint)) {
+                    checkpoint = row.getUpdatedAt();
+                }
+            });
+            deleteRemoved();
+            failed = false;
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            LOG.warn("Falha ao reconciliar o indice de busca textual", e);
+        } finally {
+            if (pending.decrementAndGet() == 0) {
+                flush();
+            }
+        }
+    }
+
+    //remocoes nao deixam linha gravada: so quando as contagens divergem compara os ids, sem ler o texto
+    private void deleteRemoved() throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long total = transaction.execute(status -> repository.count());
+        int indexed;
+        try (DirectoryReader reader = DirectoryReader.open(writer)) {
+            indexed = reader.numDocs();
+        }
+        if (total == null || total == indexed) {
+            return;
+        }
+        List<Long> ids = transaction.execute(status -> repository.findAllIds());
+        writer.deleteDocuments(new BooleanQuery.Builder()
+                .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                .add(new TermInSetQuery(ID, ids.stream().map(id -> new BytesRef(id.toString())).toList()), BooleanClause.Occur.MUST_NOT)
+                .build());
+    }
+
+    private void flush() {
+        try {
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            failed = true;
+            LOG.warn("Falha ao gravar o indice de busca textual", e);
+        }
+    }
+
+    private void addDocument(ProductTextProjection row) {
+        try {
+            writer.addDocument(toDocument(row));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //transacao de escrita para ler do primario, e nao de uma replica atrasada
+    private void forEachRow(Supplier<Stream<ProductTextProjection>> query, Consumer<ProductTextProjection> action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<ProductTextProjection> rows = query.get()) {
+                rows.forEach(action);
+            }
+        });
+    }
+
+    private ProductChangesProjection summarizeChanges() {
+        return new TransactionTemplate(transactionManager).execute(status -> repository.summarizeChanges());
+    }
+
+    private boolean isReusable(String fingerprint) throws IOException {
+        if (!DirectoryReader.indexExists(directory)) {
+            return false;
+        }
+        Map<String, String> data = SegmentInfos.readLatestCommit(directory).getUserData();
+        return SCHEMA_VERSION.equals(data.get(COMMIT_SCHEMA))
+                && Boolean.parseBoolean(data.get(COMMIT_CLEAN))
+                && fingerprint.equals(data.get(COMMIT_FINGERPRINT));
+    }
+
+    //quantidade e ultima gravacao: detectam produtos incluidos, removidos ou editados enquanto a aplicacao
+    //estava parada, com uma consulta de agregacao em vez de ler todas as linhas
+    private static String fingerprint(ProductChangesProjection changes) {
+        return changes.getTotal() + ":" + changes.getLastUpdate();
+    }
+
+    private static Map<String, String> commitData(boolean clean, String fingerprint) {
+        return Map.of(COMMIT_SCHEMA, SCHEMA_VERSION, COMMIT_CLEAN, String.valueOf(clean), COMMIT_FINGERPRINT, fingerprint);
+    }
+
+    //o texto ja vai normalizado, para a busca ignorar acentos como as outras
+    private static Document toDocument(ProductTextProjection row) {
+        Document document = new Document();
+        document.add(new StringField(ID, row.getId().toString(), Field.Store.YES));
+        String name = TextNormalizer.normalize(row.getName());
+        if (name != null) {
+            document.add(new TextField(NAME, name, Field.Store.NO));
+        }
+        String description = TextNormalizer.normalize(row.getDescription());
+        if (description != null) {
+            document.add(new TextField(DESCRIPTION, description, Field.Store.NO));
+        }
+        return document;
+    }
+
+    private static Query buildQuery(String term) {
+        if (term == null || term.isEmpty()) {
+            return null;
+        }
+        QueryBuilder builder = new QueryBuilder(ANALYZER);
+        Query name = builder.createBooleanQuery(NAME, term);
+        Query description = builder.createBooleanQuery(DESCRIPTION, term);
+        if (name == null || description == null) {
+            return null;
+        }
+        return new BooleanQuery.Builder()
+                .add(new BoostQuery(name, NAME_BOOST), BooleanClause.Occur.SHOULD)
+                .add(description, BooleanClause.Occur.SHOULD)
+                .build();
+    }
+}
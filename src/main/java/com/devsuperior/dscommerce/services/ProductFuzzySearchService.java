@@ -0,0 +1,86 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.projections.ProductNameProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
+import com.devsuperior.dscommerce.util.TextNormalizer;
+import com.devsuperior.dscommerce.util.TrigramIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductFuzzySearchService {
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${products.fuzzy.similarity-threshold}")
+    private Double similarityThreshold;
+
+    private volatile TrigramIndex index;
+
+    //tolera erros de digitacao: ordena por similaridade de trigramas e busca no banco so a pagina pedida
+    @Transactional(readOnly = true)
+    public Page<ProductMinDTO> search(String name, Pageable pageable) {
+        String term = TextNormalizer.normalize(name);
+        //so os melhores ate o fim da pagina pedida sao ordenados
+        int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        TrigramIndex.Result result = index.search(term, similarityThreshold, limit);
+        List<TrigramIndex.Match> matches = result.getMatches();
+
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        List<Long> ids = matches.subList(from, matches.size()).stream().map(TrigramIndex.Match::getKey).toList();
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.getTotal());
+        }
+        Map<Long, ProductMinDTO> products = repository.searchMinByIds(ids).stream()
+                .collect(Collectors.toMap(ProductMinDTO::getId, Function.identity()));
+        List<ProductMinDTO> content = ids.stream().map(products::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, result.getTotal());
+    }
+
+    //a reconstrucao periodica cobre gravacoes feitas por outras instancias
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${products.fuzzy.rebuild-interval}", initialDelayString = "${products.fuzzy.rebuild-interval}")
+    public synchronized void rebuild() {
+        //transacao de escrita para ler do primario: eventos que chegam durante a leitura esperam o fim da
+        //reconstrucao e sao aplicados depois, entao uma replica atrasada os desfaria
+        List<ProductNameProjection> rows = new TransactionTemplate(transactionManager)
+                .execute(status -> repository.findAllNames());
+        TrigramIndex newIndex = new TrigramIndex();
+        for (ProductNameProjection row : rows) {
+            newIndex.put(row.getId(), TextNormalizer.normalize(row.getName()));
+        }
+        index = newIndex;
+    }
+
+    //so apos o commit, para o indice nunca apontar para um produto que a transacao desfez
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            index.remove(event.getId());
+        } else {
+            index.put(event.getId(), TextNormalizer.normalize(event.getName()));
+        }
+    }
+}
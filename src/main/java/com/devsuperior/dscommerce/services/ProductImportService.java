@@ -0,0 +1,291 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductImportResultDTO;
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${products.import.chunk-size}")
+    private Integer chunkSize;
+
+    //le o arquivo linha a linha e grava em lotes, cada lote na sua propria transacao
+    public ProductImportResultDTO importProducts(InputStream in, Format format, boolean upsert) throws IOException {
+
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        Set<Long> categoryIds = categoryRepository.findAll().stream().map(Category::getId).collect(Collectors.toSet());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<String, Integer> csvHeader = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvHeader == null) {
+                csvHeader = parseCsvHeader(line);
+                continue;
+            }
+            result.addProcessed();
+            try {
+                ProductDTO dto = format == Format.CSV ? parseCsv(line, csvHeader) : objectMapper.readValue(line, ProductDTO.class);
+                String error = validate(dto, categoryIds, upsert);
+                if (error != null) {
+                    result.addError(lineNumber, error);
+                    continue;
+                }
+                chunk.add(new ImportRecord(lineNumber, dto));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                result.addError(lineNumber, "Registro mal formatado");
+                continue;
+            }
+            if (chunk.size() >= chunkSize) {
+                writeChunk(chunk, upsert, transactionTemplate, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, upsert, transactionTemplate, result);
+        }
+        return result;
+    }
+
+    private void writeChunk(List<ImportRecord> chunk, boolean upsert, TransactionTemplate transactionTemplate,
+            ProductImportResultDTO result) {
+
+        try {
+            List<ImportRecord> missing = new ArrayList<>();
+            int[] counts = transactionTemplate.execute(status -> write(chunk, upsert, missing));
+            report(counts, missing, result);
+        } catch (RuntimeException e) {
+            //um registro ruim nao derruba o lote todo: regrava um a um para achar o culpado
+            LOG.warn("Falha ao gravar o lote das linhas {} a {}, gravando registro a registro: {}",
+                    chunk.get(0).line, chunk.get(chunk.size() - 1).line, e.getMessage());
+            for (ImportRecord record : chunk) {
+                writeRecord(record, upsert, transactionTemplate, result);
+            }
+        }
+    }
+
+    private void writeRecord(ImportRecord record, boolean upsert, TransactionTemplate transactionTemplate,
+            ProductImportResultDTO result) {
+
+        try {
+            List<ImportRecord> missing = new ArrayList<>();
+            int[] counts = transactionTemplate.execute(status -> write(List.of(record), upsert, missing));
+            report(counts, missing, result);
+        } catch (RuntimeException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            LOG.warn("Falha ao gravar a linha {} da importacao: {}", record.line, cause);
+            result.addError(record.line, "Falha ao gravar: " + cause);
+        }
+    }
+
+    private int[] write(List<ImportRecord> records, boolean upsert, List<ImportRecord> missing) {
+        missing.clear();
+        Map<Long, Product> existing = upsert ? findExisting(records) : Map.of();
+        int inserted = 0;
+        int updated = 0;
+        for (ImportRecord record : records) {
+            Product entity;
+            if (record.dto.getId() == null) {
+                entity = new Product();
+                inserted++;
+            } else {
+                //o id nunca e gerado a partir do arquivo, so identifica um produto existente
+                entity = existing.get(record.dto.getId());
+                if (entity == null) {
+                    missing.add(record);
+                    continue;
+                }
+                updated++;
+            }
+            ProductService.copyDtoToEntity(record.dto, entity);
+            repository.save(entity);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(entity.getId(), entity.getName()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return new int[] {inserted, updated};
+    }
+
+    private void report(int[] counts, List<ImportRecord> missing, ProductImportResultDTO result) {
+        for (int i = 0; i < counts[0]; i++) {
+            result.addInserted();
+        }
+        for (int i = 0; i < counts[1]; i++) {
+            result.addUpdated();
+        }
+        for (ImportRecord record : missing) {
+            result.addError(record.line, "id: Produto inexistente " + record.dto.getId());
+        }
+    }
+
+    private Map<Long, Product> findExisting(List<ImportRecord> chunk) {
+        List<Long> ids = chunk.stream().map(x -> x.dto.getId()).filter(Objects::nonNull).toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return repository.findAllById(ids).stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private String validate(ProductDTO dto, Set<Long> categoryIds, boolean upsert) {
+        if (dto.getId() != null && !upsert) {
+            return "id: Informar o id exige upsert=true";
+        }
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(x -> x.getPropertyPath() + ": " + x.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        for (CategoryDTO catDto : dto.getCategories()) {
+            if (catDto.getId() == null || !categoryIds.contains(catDto.getId())) {
+                return "categories: Categoria inexistente " + catDto.getId();
+            }
+        }
+        return null;
+    }
+
+    // colunas: id (opcional), name, description, price, imgUrl, categories (ids separados por '|')
+    private Map<String, Integer> parseCsvHeader(String line) {
+        List<String> columns = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+        return header;
+    }
+
+    private ProductDTO parseCsv(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        String id = column(values, header, "id");
+        String price = column(values, header, "price");
+
+        ProductDTO dto = new ProductDTO(
+                id == null ? null : Long.valueOf(id),
+                column(values, header, "name"),
+                column(values, header, "description"),
+                price == null ? null : Double.valueOf(price),
+                column(values, header, "imgUrl"));
+
+        String categories = column(values, header, "categories");
+        if (categories != null) {
+            for (String catId : categories.split("\\|")) {
+                dto.getCategories().add(new CategoryDTO(Long.valueOf(catId.trim()), null));
+            }
+        }
+        return dto;
+    }
+
+    private String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= values.size() || values.get(index).isBlank()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    //campos entre aspas podem conter virgulas e aspas duplicadas ("")
+    private List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static class ImportRecord {
+
+        private final long line;
+        private final ProductDTO dto;
+
+        ImportRecord(long line, ProductDTO dto) {
+            this.line = line;
+            this.dto = dto;
+        }
+    }
+}
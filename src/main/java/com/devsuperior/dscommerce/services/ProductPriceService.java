@@ -0,0 +1,128 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductPriceDTO;
+import com.devsuperior.dscommerce.dto.ProductPriceUpdateDTO;
+import com.devsuperior.dscommerce.dto.ProductPriceUpdateResultDTO;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class ProductPriceService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductPriceService.class);
+
+    private static final String UPDATE_PRICE_SQL = "UPDATE tb_product SET price = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${products.price-update.chunk-size}")
+    private Integer chunkSize;
+
+    //atualiza os precos direto no banco, sem carregar os produtos, cada lote na sua propria transacao
+    public ProductPriceUpdateResultDTO updatePrices(ProductPriceUpdateDTO dto) {
+
+        ProductPriceUpdateResultDTO result = new ProductPriceUpdateResultDTO();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            if (dto.hasCategoryRule()) {
+                applyCategoryRule(dto.getCategoryId(), dto.getPercent(), transactionTemplate, result);
+            } else {
+                applyPrices(dto.getPrices(), transactionTemplate, result);
+            }
+        } finally {
+            //os lotes ja gravados ficam, entao o cache e limpo mesmo se um lote falhar
+            entityManagerFactory.getCache().evict(Product.class);
+        }
+        return result;
+    }
+
+    private void applyPrices(List<ProductPriceDTO> prices, TransactionTemplate transactionTemplate,
+            ProductPriceUpdateResultDTO result) {
+
+        for (int from = 0; from < prices.size(); from += chunkSize) {
+            List<ProductPriceDTO> chunk = prices.subList(from, Math.min(from + chunkSize, prices.size()));
+            int[] counts;
+            try {
+                counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, chunk,
+                        chunk.size(), (ps, item) -> {
+                            ps.setDouble(1, item.getPrice());
+                            ps.setLong(2, item.getId());
+                        })[0]);
+            } catch (RuntimeException e) {
+                //os lotes anteriores ja foram gravados e nao sao desfeitos
+                LOG.error("Atualizacao de precos interrompida: os primeiros {} de {} itens foram gravados",
+                        from, prices.size(), e);
+                throw e;
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    result.addNotFound(chunk.get(i).getId());
+                } else {
+                    result.addUpdated(1);
+                }
+            }
+        }
+    }
+
+    //pagina pelos ids reais da categoria (keyset), entao ids esparsos nao geram lotes vazios
+    private void applyCategoryRule(Long categoryId, Double percent, TransactionTemplate transactionTemplate,
+            ProductPriceUpdateResultDTO result) {
+
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Categoria não encontrada");
+        }
+        double factor = 1.0 + percent / 100.0;
+        long lastId = 0L;
+        while (true) {
+            long afterId = lastId;
+            long[] chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> {
+                    List<Long> ids = repository.findIdsByCategoryAfter(categoryId, afterId, chunkSize);
+                    if (ids.isEmpty()) {
+                        return null;
+                    }
+                    Long toId = ids.get(ids.size() - 1);
+                    return new long[] {toId, repository.applyPriceFactorByCategory(categoryId, factor, ids.get(0), toId)};
+                });
+            } catch (RuntimeException e) {
+                //os lotes anteriores ja foram gravados e nao sao desfeitos
+                LOG.error("Reajuste da categoria {} interrompido: produtos ate o id {} reajustados ({}), "
+                        + "a partir do id {} nao reajustados", categoryId, afterId, result.getUpdated(), afterId + 1, e);
+                throw e;
+            }
+            if (chunk == null) {
+                return;
+            }
+            lastId = chunk[0];
+            result.addUpdated(chunk[1]);
+        }
+    }
+}
@@ -3,13 +3,20 @@ package com.devsuperior.dscommerce.services;
 import com.devsuperior.dscommerce.dto.CategoryDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.ProductPatchDTO;
 import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.ProductExportProjection;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
 import com.devsuperior.dscommerce.services.exceptions.DatabaseException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscommerce.util.TextNormalizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,13 +24,29 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    public enum SearchMode { PREFIX, FUZZY, FULLTEXT }
+
     @Autowired
     private ProductRepository repository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional(readOnly = true)
     public ProductDTO findById(Long id) {
         Product product = repository.findById(id).orElseThrow(
@@ -34,16 +57,52 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public Page<ProductMinDTO> findAll(String name, Pageable pageable) {
-        Page<Product> result = repository.searchByName(name, pageable);
-        return result.map(x -> new ProductMinDTO(x));
+        //busca por prefixo do nome sem acentos e sem diferenciar maiusculas
+        String prefix = TextNormalizer.normalize(name)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return repository.searchByName(prefix + "%", pageable);
 
     }
 
+    //escreve um produto por linha (NDJSON) a medida que as linhas chegam do banco
+    @Transactional(readOnly = true)
+    public void exportTo(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ProductDTO.class);
+        BufferedOutputStream buffer = new BufferedOutputStream(out, 64 * 1024);
+
+        try (Stream<ProductExportProjection> rows = repository.streamAllForExport()) {
+            Iterator<ProductExportProjection> it = rows.iterator();
+            ProductDTO current = null;
+            while (it.hasNext()) {
+                ProductExportProjection row = it.next();
+                if (current == null || !current.getId().equals(row.getId())) {
+                    writeLine(writer, buffer, current);
+                    current = new ProductDTO(row.getId(), row.getName(), row.getDescription(), row.getPrice(), row.getImgUrl());
+                }
+                if (row.getCategoryId() != null) {
+                    current.getCategories().add(new CategoryDTO(row.getCategoryId(), row.getCategoryName()));
+                }
+            }
+            writeLine(writer, buffer, current);
+        }
+        buffer.flush();
+    }
+
+    private void writeLine(ObjectWriter writer, OutputStream out, ProductDTO dto) throws IOException {
+        if (dto != null) {
+            out.write(writer.writeValueAsBytes(dto));
+            out.write('\n');
+        }
+    }
+
     @Transactional
     public ProductDTO insert(ProductDTO dto) {
         Product entity = new Product();
         copyDtoToEntity(dto, entity);
         entity = repository.save(entity);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(entity.getId(), entity.getName()));
 
         return new ProductDTO(entity);
     }
@@ -54,6 +113,7 @@ public class ProductService {
             Product entity = repository.getReferenceById(id);
             copyDtoToEntity(dto, entity);
             entity = repository.save(entity);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(entity.getId(), entity.getName()));
 
             return new ProductDTO(entity);
         } catch (EntityNotFoundException e) {
@@ -62,6 +122,35 @@ public class ProductService {
         }
     }
 
+    @Transactional
+    public ProductDTO patch(Long id, ProductPatchDTO dto) {
+        try {
+            Product entity = repository.getReferenceById(id);
+            if (dto.getName() != null) {
+                entity.setName(dto.getName());
+            }
+            if (dto.getDescription() != null) {
+                entity.setDescription(dto.getDescription());
+            }
+            //nome e descricao alimentam os indices de busca
+            if (dto.getName() != null || dto.getDescription() != null) {
+                eventPublisher.publishEvent(ProductChangedEvent.saved(id, entity.getName()));
+            }
+            if (dto.getPrice() != null) {
+                entity.setPrice(dto.getPrice());
+            }
+            if (dto.getImgUrl() != null) {
+                entity.setImgUrl(dto.getImgUrl());
+            }
+            if (dto.getCategories() != null) {
+                updateCategories(dto.getCategories(), entity);
+            }
+            return new ProductDTO(entity);
+        } catch (EntityNotFoundException e) {
+            throw new ResourceNotFoundException("Recurso não encontrado");
+        }
+    }
+
     @Transactional(propagation = Propagation.SUPPORTS)
     public void delete(Long id) {
         if (!repository.existsById(id)) {
@@ -69,24 +158,37 @@ public class ProductService {
         }
         try {
             repository.deleteById(id);
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
         } catch (DataIntegrityViolationException e) {
             throw new DatabaseException("Falha de integridade referencial");
         }
 
     }
 
-    private void copyDtoToEntity(ProductDTO dto, Product entity) {
+    //tambem usado pela importacao em lote
+    static void copyDtoToEntity(ProductDTO dto, Product entity) {
 
         entity.setName(dto.getName());
         entity.setDescription(dto.getDescription());
         entity.setPrice(dto.getPrice());
         entity.setImgUrl(dto.getImgUrl());
 
-        entity.getCategories().clear();
-        for (CategoryDTO catDto : dto.getCategories()) {
-            Category cat = new Category();
-            cat.setId(catDto.getId());
-            entity.getCategories().add(cat);
+        updateCategories(dto.getCategories(), entity);
+    }
+
+    //altera so as associacoes que mudaram, sem apagar e reinserir todas as linhas de tb_product_category
+    private static void updateCategories(List<CategoryDTO> categories, Product entity) {
+
+        Set<Long> requestedIds = categories.stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+        entity.getCategories().removeIf(cat -> !requestedIds.contains(cat.getId()));
+
+        Set<Long> currentIds = entity.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+        for (Long categoryId : requestedIds) {
+            if (!currentIds.contains(categoryId)) {
+                Category cat = new Category();
+                cat.setId(categoryId);
+                entity.getCategories().add(cat);
+            }
         }
     }
 
@@ -0,0 +1,126 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductSuggestionDTO;
+import com.devsuperior.dscommerce.projections.ProductPopularityProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
+import com.devsuperior.dscommerce.util.RadixTrie;
+import com.devsuperior.dscommerce.util.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ProductSuggestService {
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${products.suggest.max-results}")
+    private Integer maxResults;
+
+    private volatile RadixTrie trie;
+
+    // produtos indexados, para achar as chaves antigas ao renomear ou remover; protegido por this
+    private Map<Long, RadixTrie.Entry> indexed = new HashMap<>();
+
+    //responde so com o indice em memoria, sem acessar o banco
+    public List<ProductSuggestionDTO> suggest(String query) {
+        String prefix = TextNormalizer.normalize(query);
+        if (prefix == null || prefix.isEmpty()) {
+            return List.of();
+        }
+        return trie.lookup(prefix).stream()
+                .map(x -> new ProductSuggestionDTO(x.getId(), x.getName()))
+                .toList();
+    }
+
+    //reconstroi periodicamente para atualizar a popularidade com os pedidos novos
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${products.suggest.rebuild-interval}", initialDelayString = "${products.suggest.rebuild-interval}")
+    public synchronized void rebuild() {
+        //transacao de escrita para ler do primario: eventos que chegam durante a leitura esperam o fim da
+        //reconstrucao e sao aplicados depois, entao uma replica atrasada os desfaria
+        List<ProductPopularityProjection> rows = new TransactionTemplate(transactionManager)
+                .execute(status -> repository.findAllWithPopularity());
+        RadixTrie newTrie = new RadixTrie(maxResults);
+        Map<Long, RadixTrie.Entry> newIndexed = new HashMap<>();
+        for (ProductPopularityProjection row : rows) {
+            RadixTrie.Entry entry = new RadixTrie.Entry(row.getId(), row.getName(), row.getPopularity());
+            addKeys(newTrie, entry);
+            newIndexed.put(row.getId(), entry);
+        }
+        trie = newTrie;
+        indexed = newIndexed;
+    }
+
+    //so apos o commit, para nunca sugerir um produto que a transacao desfez
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getId());
+        } else {
+            put(event.getId(), event.getName());
+        }
+    }
+
+    private synchronized void put(Long id, String name) {
+        RadixTrie.Entry old = indexed.remove(id);
+        if (old != null) {
+            removeKeys(trie, old);
+        }
+        if (name == null) {
+            return;
+        }
+        RadixTrie.Entry entry = new RadixTrie.Entry(id, name, old != null ? old.getScore() : 0L);
+        addKeys(trie, entry);
+        indexed.put(id, entry);
+    }
+
+    private synchronized void remove(Long id) {
+        RadixTrie.Entry old = indexed.remove(id);
+        if (old != null) {
+            removeKeys(trie, old);
+        }
+    }
+
+    private void addKeys(RadixTrie target, RadixTrie.Entry entry) {
+        for (String key : keysOf(entry.getName())) {
+            target.put(key, entry);
+        }
+    }
+
+    private void removeKeys(RadixTrie target, RadixTrie.Entry entry) {
+        for (String key : keysOf(entry.getName())) {
+            target.remove(key, entry.getId());
+        }
+    }
+
+    //o nome inteiro e o resto dele a partir de cada palavra, para "pro" sugerir "Macbook Pro"
+    private Set<String> keysOf(String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        String normalized = TextNormalizer.normalize(name);
+        if (normalized == null || normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+}
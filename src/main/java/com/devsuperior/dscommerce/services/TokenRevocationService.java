@@ -0,0 +1,167 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.config.BoundedOAuth2AuthorizationService;
+import com.devsuperior.dscommerce.entities.RevokedToken;
+import com.devsuperior.dscommerce.repositories.RevokedTokenRepository;
+import com.devsuperior.dscommerce.util.BloomFilter;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Service
+public class TokenRevocationService {
+
+    private static final String USER_KEY_PREFIX = "user:";
+    private static final String LOCKOUT_KEY_PREFIX = "lockout:";
+
+    @Autowired
+    private RevokedTokenRepository repository;
+
+    @Autowired
+    private CustomUserUtil customUserUtil;
+
+    @Autowired
+    private BoundedOAuth2AuthorizationService authorizationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${security.revocation.expected-insertions}")
+    private Integer expectedInsertions;
+
+    @Value("${security.revocation.false-positive-rate}")
+    private Double falsePositiveRate;
+
+    @Value("${security.jwt.refresh-duration}")
+    private Integer refreshDurationSeconds;
+
+    @Value("${security.revocation.lockout-duration}")
+    private Integer lockoutDurationSeconds;
+
+    private volatile BloomFilter filter;
+
+    //encerra a sessao inteira: sem remover a autorizacao o refresh token emitiria um novo access token
+    @Transactional
+    public void revokeCurrentToken() {
+        Jwt jwt = customUserUtil.getLoggedUserJwt();
+        revoke(jwt.getId(), jwt.getExpiresAt());
+        String username = jwt.getClaimAsString("username");
+        Instant authTime = jwt.hasClaim("auth_time") ? jwt.getClaimAsInstant("auth_time") : null;
+        if (username != null && authTime != null) {
+            authorizationService.removeByUsernameAndAuthTime(username, authTime);
+        }
+    }
+
+    @Transactional
+    public void revoke(String tokenId, Instant expiresAt) {
+        repository.save(new RevokedToken(tokenId, Instant.now(), expiresAt));
+        addToFilterNowAndAfterCommit(tokenId);
+    }
+
+    //invalida todos os tokens ja emitidos para o usuario, inclusive os renovados por refresh token; so os
+    //emitidos antes da revogacao sao afetados. Novos logins ficam bloqueados por lockout-duration (0 desliga)
+    @Transactional
+    public void revokeUserTokens(String username) {
+        //auth_time tem resolucao de segundos: truncado, o registro alcanca tambem os tokens do mesmo segundo
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        String key = USER_KEY_PREFIX + username;
+        repository.save(new RevokedToken(key, now, now.plusSeconds(refreshDurationSeconds)));
+        addToFilterNowAndAfterCommit(key);
+        if (lockoutDurationSeconds > 0) {
+            String lockoutKey = LOCKOUT_KEY_PREFIX + username;
+            repository.save(new RevokedToken(lockoutKey, now, now.plusSeconds(lockoutDurationSeconds)));
+            addToFilterNowAndAfterCommit(lockoutKey);
+        }
+        //sem refresh tokens validos, nenhum token novo sobrevive ao fim do registro "user:"
+        authorizationService.removeByUsername(username);
+    }
+
+    //libera novos logins antes do fim do bloqueio; os tokens revogados continuam revogados
+    @Transactional
+    public void unlockUser(String username) {
+        repository.deleteById(LOCKOUT_KEY_PREFIX + username);
+    }
+
+    //consultado no login; o filtro evita a consulta para quem nunca foi bloqueado
+    public boolean isLockedOut(String username) {
+        String key = LOCKOUT_KEY_PREFIX + username;
+        if (!filter.mightContain(key)) {
+            return false;
+        }
+        Optional<RevokedToken> revocation = onPrimary(() -> repository.findById(key));
+        return revocation != null && revocation
+                .map(x -> x.getExpiresAt().isAfter(Instant.now()))
+                .orElse(false);
+    }
+
+    public boolean isRevoked(Jwt jwt) {
+        BloomFilter current = filter;
+
+        String tokenId = jwt.getId();
+        if (tokenId != null && current.mightContain(tokenId) && Boolean.TRUE.equals(onPrimary(() -> repository.existsById(tokenId)))) {
+            return true;
+        }
+
+        String username = jwt.getClaimAsString("username");
+        if (username == null || !current.mightContain(USER_KEY_PREFIX + username)) {
+            return false;
+        }
+        Instant authTime = jwt.hasClaim("auth_time") ? jwt.getClaimAsInstant("auth_time") : jwt.getIssuedAt();
+        Optional<RevokedToken> revocation = onPrimary(() -> repository.findById(USER_KEY_PREFIX + username));
+        return revocation != null && revocation
+                .map(x -> authTime == null || !authTime.isAfter(x.getRevokedAt()))
+                .orElse(false);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${security.revocation.rebuild-interval}", initialDelayString = "${security.revocation.rebuild-interval}")
+    public void rebuild() {
+        repository.deleteExpired(Instant.now());
+        synchronized (this) {
+            List<String> ids = onPrimary(() -> repository.findActiveIds(Instant.now()));
+            BloomFilter newFilter = new BloomFilter(Math.max(expectedInsertions, ids.size() * 2), falsePositiveRate);
+            ids.forEach(newFilter::add);
+            filter = newFilter;
+        }
+    }
+
+    //transacao de escrita para ler do primario: uma replica atrasada deixaria passar um token recem-revogado
+    private <T> T onPrimary(Supplier<T> query) {
+        return new TransactionTemplate(transactionManager).execute(status -> query.get());
+    }
+
+    // adicionado ja e de novo apos o commit: se a transacao falhar o custo e so um falso positivo,
+    // e a segunda insercao cobre um rebuild que tenha trocado o filtro antes do commit
+    private void addToFilterNowAndAfterCommit(String key) {
+        addToFilter(key);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addToFilter(key);
+            }
+        });
+    }
+
+    // synchronized with rebuild so a key committed while the filter is being replaced is not lost
+    private synchronized void addToFilter(String key) {
+        filter.add(key);
+    }
+}
@@ -9,6 +9,7 @@ import com.devsuperior.dscommerce.util.CustomUserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -27,24 +28,39 @@ public class UserService implements UserDetailsService {
     @Autowired
     private CustomUserUtil customUserUtil;
 
+    @Autowired
+    private UserCache userCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
+        UserDetails cached = userCache.getUserFromCache(username);
+        if (cached != null) {
+            return cached;
+        }
+
         List<UserDetailsProjection> result = repository.searchUserAndRolesByEmail(username);
         if (result.size() == 0) {
             throw new UsernameNotFoundException("Email not found");
         }
 
         User user = new User();
+        user.setId(result.get(0).getUserId());
         user.setEmail(result.get(0).getUsername());
         user.setPassword(result.get(0).getPassword());
         for (UserDetailsProjection projection : result) {
             user.addRole(new Role(projection.getRoleId(), projection.getAuthority()));
         }
 
+        userCache.putUserInCache(user);
         return user;
     }
 
+    //deve ser chamado sempre que a senha ou os perfis do usuario mudarem
+    public void evictCredentials(String email) {
+        userCache.removeUserFromCache(email);
+    }
+
     //obter usuario logado
     protected User authenticated() {
 
@@ -0,0 +1,35 @@
+package com.devsuperior.dscommerce.services.events;
+
+//publicado a cada gravacao ou remocao de produto; os indices de busca em memoria se atualizam apos o commit
+public class ProductChangedEvent {
+
+    private final Long id;
+    private final String name;
+    private final boolean deleted;
+
+    private ProductChangedEvent(Long id, String name, boolean deleted) {
+        this.id = id;
+        this.name = name;
+        this.deleted = deleted;
+    }
+
+    public static ProductChangedEvent saved(Long id, String name) {
+        return new ProductChangedEvent(id, name, false);
+    }
+
+    public static ProductChangedEvent deleted(Long id) {
+        return new ProductChangedEvent(id, null, true);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -1,6 +1,7 @@
 package com.devsuperior.dscommerce.util;
 
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
@@ -9,8 +10,27 @@ import org.springframework.stereotype.Component;
 public class CustomUserUtil {
 
     public String getLoggedUserName() {
+        return getLoggedUserJwt().getClaim("username");
+    }
+
+    public Jwt getLoggedUserJwt() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (Jwt) authentication.getPrincipal();
+    }
+
+    //tokens emitidos antes do claim user_id existir retornam null
+    public Long getLoggedUserId() {
+        Object userId = getLoggedUserJwt().getClaim("user_id");
+        return userId instanceof Number number ? number.longValue() : null;
+    }
+
+    public boolean loggedUserHasAuthority(String authority) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Jwt jwtPrincipal = (Jwt) authentication.getPrincipal();
-        return jwtPrincipal.getClaim("username");
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            if (granted.getAuthority().equals(authority)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,247 @@
+package com.devsuperior.dscommerce.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compressed prefix trie from string keys to scored entries. Every node keeps the best
+ * {@code maxResults} entries of its subtree, so {@link #lookup(String)} walks down the prefix and
+ * returns that list without visiting the subtree. An entry may be stored under several keys; the
+ * lists hold each id once. A node merges its children's lists and drops repeated ids after ranking;
+ * each child list already holds {@code maxResults} distinct ids whenever its subtree has that many,
+ * so the merged list is never shorter than the subtree allows.
+ * Nodes are immutable and writers copy the path they change, so lookups need no locking and always
+ * see a consistent trie. Writers are serialized.
+ */
+public class RadixTrie {
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::getScore).reversed()
+            .thenComparing(Entry::getName)
+            .thenComparingLong(Entry::getId);
+
+    private final int maxResults;
+    private volatile Node root;
+
+    public RadixTrie(int maxResults) {
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("maxResults must be greater than zero");
+        }
+        this.maxResults = maxResults;
+        this.root = newNode("", NO_CHILDREN, NO_ENTRIES);
+    }
+
+    public List<Entry> lookup(String prefix) {
+        Node node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            int index = childIndex(node, rest.charAt(0));
+            if (index < 0) {
+                return List.of();
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, rest);
+            if (common == rest.length()) {
+                return List.of(child.top);
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            rest = rest.substring(common);
+            node = child;
+        }
+        return List.of(node.top);
+    }
+
+    public synchronized void put(String key, Entry entry) {
+        root = insert(root, key, entry);
+    }
+
+    public synchronized void remove(String key, long id) {
+        root = delete(root, key, id);
+    }
+
+    private Node insert(Node node, String rest, Entry entry) {
+        if (rest.isEmpty()) {
+            return newNode(node.label, node.children, withEntry(node.entries, entry));
+        }
+        int index = childIndex(node, rest.charAt(0));
+        if (index < 0) {
+            return newNode(node.label, withChild(node.children, newNode(rest, NO_CHILDREN, new Entry[]{entry})), node.entries);
+        }
+        Node child = node.children[index];
+        int common = commonPrefixLength(child.label, rest);
+        Node replacement;
+        if (common == child.label.length()) {
+            replacement = insert(child, rest.substring(common), entry);
+        } else {
+            // the key leaves the edge halfway: split it at the common part
+            Node lowered = new Node(child.label.substring(common), child.children, child.entries, child.top);
+            Node split = newNode(child.label.substring(0, common), new Node[]{lowered}, NO_ENTRIES);
+            replacement = insert(split, rest.substring(common), entry);
+        }
+        return newNode(node.label, replaceChild(node.children, index, replacement), node.entries);
+    }
+
+    private Node delete(Node node, String rest, long id) {
+        if (rest.isEmpty()) {
+            Entry[] entries = withoutEntry(node.entries, id);
+            return entries == node.entries ? node : newNode(node.label, node.children, entries);
+        }
+        int index = childIndex(node, rest.charAt(0));
+        if (index < 0) {
+            return node;
+        }
+        Node child = node.children[index];
+        if (!rest.startsWith(child.label)) {
+            return node;
+        }
+        Node updated = delete(child, rest.substring(child.label.length()), id);
+        if (updated == child) {
+            return node;
+        }
+        if (updated.entries.length == 0 && updated.children.length == 0) {
+            return newNode(node.label, withoutChild(node.children, index), node.entries);
+        }
+        if (updated.entries.length == 0 && updated.children.length == 1) {
+            // a node left with one child and no entries is merged into it to keep the trie compressed
+            Node only = updated.children[0];
+            updated = new Node(updated.label + only.label, only.children, only.entries, only.top);
+        }
+        return newNode(node.label, replaceChild(node.children, index, updated), node.entries);
+    }
+
+    private Node newNode(String label, Node[] children, Entry[] entries) {
+        List<Entry> candidates = new ArrayList<>(Arrays.asList(entries));
+        for (Node child : children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+        List<Entry> top = new ArrayList<>(Math.min(maxResults, candidates.size()));
+        Set<Long> ids = new HashSet<>();
+        for (Entry candidate : candidates) {
+            if (top.size() == maxResults) {
+                break;
+            }
+            if (ids.add(candidate.getId())) {
+                top.add(candidate);
+            }
+        }
+        return new Node(label, children, entries, top.toArray(NO_ENTRIES));
+    }
+
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char current = node.children[mid].label.charAt(0);
+            if (current < first) {
+                low = mid + 1;
+            } else if (current > first) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Node[] withChild(Node[] children, Node child) {
+        Node[] result = Arrays.copyOf(children, children.length + 1);
+        int i = children.length;
+        while (i > 0 && result[i - 1].label.charAt(0) > child.label.charAt(0)) {
+            result[i] = result[i - 1];
+            i--;
+        }
+        result[i] = child;
+        return result;
+    }
+
+    private static Node[] replaceChild(Node[] children, int index, Node child) {
+        Node[] result = children.clone();
+        result[index] = child;
+        return result;
+    }
+
+    private static Node[] withoutChild(Node[] children, int index) {
+        Node[] result = new Node[children.length - 1];
+        System.arraycopy(children, 0, result, 0, index);
+        System.arraycopy(children, index + 1, result, index, children.length - index - 1);
+        return result;
+    }
+
+    private static Entry[] withEntry(Entry[] entries, Entry entry) {
+        Entry[] result = withoutEntry(entries, entry.getId());
+        result = Arrays.copyOf(result, result.length + 1);
+        result[result.length - 1] = entry;
+        return result;
+    }
+
+    private static Entry[] withoutEntry(Entry[] entries, long id) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].getId() == id) {
+                Entry[] result = new Entry[entries.length - 1];
+                System.arraycopy(entries, 0, result, 0, i);
+                System.arraycopy(entries, i + 1, result, i, entries.length - i - 1);
+                return result;
+            }
+        }
+        return entries;
+    }
+
+    public static final class Entry {
+
+        private final long id;
+        private final String name;
+        private final long score;
+
+        public Entry(long id, String name, long score) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getScore() {
+            return score;
+        }
+    }
+
+    private static final class Node {
+
+        private final String label;
+        private final Node[] children;
+        private final Entry[] entries;
+        private final Entry[] top;
+
+        private Node(String label, Node[] children, Entry[] entries, Entry[] top) {
+            this.label = label;
+            this.children = children;
+            this.entries = entries;
+            this.top = top;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.devsuperior.dscommerce.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index for typo-tolerant matching of short texts. Each word is padded the way
+ * PostgreSQL's pg_trgm does it (two spaces before, one after) and split into trigrams. Every
+ * trigram maps to a sorted int array of internal document numbers. Similarity is the number of
+ * distinct trigrams two texts share divided by the size of their union.
+ * Texts are expected to be normalized already, with words separated by single spaces.
+ * Safe for concurrent use: searches share a read lock, updates take the write lock.
+ */
+public class TrigramIndex {
+
+    private static final Comparator<Match> RANKING = Comparator.comparingDouble(Match::getSimilarity).reversed()
+            .thenComparingLong(Match::getKey);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // a pool instead of a ThreadLocal: with virtual threads every request runs on a new thread.
+    // Each accumulator is as large as the index, so only one per processor is kept after a burst
+    private static final int MAX_POOLED_ACCUMULATORS = Runtime.getRuntime().availableProcessors();
+
+    private final Queue<Accumulator> accumulators = new ArrayBlockingQueue<>(MAX_POOLED_ACCUMULATORS);
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByKey = new HashMap<>();
+    private long[] keys = new long[64];
+    private long[][] trigramsByDoc = new long[64][];
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+    private int docCount;
+
+    public void put(long key, String text) {
+        long[] trigrams = trigrams(text);
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (trigrams.length == 0) {
+                return;
+            }
+            int doc = freeCount > 0 ? freeDocs[--freeCount] : newDoc();
+            keys[doc] = key;
+            trigramsByDoc[doc] = trigrams;
+            docByKey.put(key, doc);
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, x -> new Postings()).add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // texts sharing no trigram with the query are never visited; only the best limit matches are
+    // kept and sorted, the others are just counted
+    public Result search(String text, double threshold, int limit) {
+        long[] query = trigrams(text);
+        if (query.length == 0 || limit <= 0) {
+            return new Result(List.of(), 0);
+        }
+        Accumulator acc = accumulators.poll();
+        PriorityQueue<Match> best = new PriorityQueue<>(RANKING.reversed());
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            // sized to the document capacity, so one left over from a smaller index is replaced
+            if (acc == null || acc.capacity() != keys.length) {
+                acc = new Accumulator(keys.length);
+            }
+            for (long trigram : query) {
+                Postings list = postings.get(trigram);
+                if (list == null) {
+                    continue;
+                }
+                for (int i = 0; i < list.size; i++) {
+                    acc.add(list.docs[i]);
+                }
+            }
+            for (int i = 0; i < acc.touchedCount; i++) {
+                int doc = acc.touched[i];
+                int shared = acc.shared[doc];
+                double similarity = (double) shared / (query.length + trigramsByDoc[doc].length - shared);
+                if (similarity < threshold) {
+                    continue;
+                }
+                total++;
+                Match match = new Match(keys[doc], similarity);
+                if (best.size() < limit) {
+                    best.add(match);
+                } else if (RANKING.compare(match, best.peek()) < 0) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+            if (acc != null) {
+                acc.clear();
+                // dropped when the pool is already full
+                accumulators.offer(acc);
+            }
+        }
+        Match[] top = best.toArray(new Match[0]);
+        Arrays.sort(top, RANKING);
+        return new Result(Arrays.asList(top), total);
+    }
+
+    private static long[] trigrams(String text) {
+        if (text == null || text.isBlank()) {
+            return new long[0];
+        }
+        long[] result = new long[16];
+        int count = 0;
+        for (String word : text.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        return Arrays.stream(result, 0, count).sorted().distinct().toArray();
+    }
+
+    private void removeLocked(long key) {
+        Integer doc = docByKey.remove(key);
+        if (doc == null) {
+            return;
+        }
+        for (long trigram : trigramsByDoc[doc]) {
+            Postings list = postings.get(trigram);
+            list.remove(doc);
+            if (list.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+        trigramsByDoc[doc] = null;
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    private int newDoc() {
+        if (docCount == keys.length) {
+            keys = Arrays.copyOf(keys, docCount * 2);
+            trigramsByDoc = Arrays.copyOf(trigramsByDoc, docCount * 2);
+        }
+        return docCount++;
+    }
+
+    public static final class Result {
+
+        private final List<Match> matches;
+        private final int total;
+
+        public Result(List<Match> matches, int total) {
+            this.matches = matches;
+            this.total = total;
+        }
+
+        // the best matches, best first, at most the requested limit
+        public List<Match> getMatches() {
+            return matches;
+        }
+
+        // every match above the threshold, including those past the limit
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    public static final class Match {
+
+        private final long key;
+        private final double similarity;
+
+        public Match(long key, double similarity) {
+            this.key = key;
+            this.similarity = similarity;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    // per-document counters reused across searches; only the touched slots are reset afterwards
+    private static final class Accumulator {
+
+        private final int[] shared;
+        private int[] touched = new int[16];
+        private int touchedCount;
+
+        private Accumulator(int capacity) {
+            shared = new int[capacity];
+        }
+
+        private int capacity() {
+            return shared.length;
+        }
+
+        private void add(int doc) {
+            if (shared[doc]++ == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+        }
+
+        private void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                shared[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    // growable sorted array of document numbers
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        private void add(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            docs[index] = doc;
+            size++;
+        }
+
+        private void remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            size--;
+        }
+    }
+}
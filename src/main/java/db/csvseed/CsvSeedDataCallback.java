@@ -0,0 +1,188 @@
+package db.csvseed;
+
+import db.seed.SeedDataCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the sample data from the CSV files in {@code db/csvseed/data}, in place of the statement by
+ * statement {@code db/seed/seed_data.sql}. Selected by {@code seed.data=csv}, as the
+ * {@code csvseed} profile does. On H2 every file goes in with a single {@code INSERT ... SELECT}
+ * over {@code CSVREAD}. Other databases, or {@code nativeLoad=false}, get batched JDBC inserts
+ * instead. The files carry their ids, so the identity columns are restarted past them at the end.
+ * Timestamps are written with their offset, like the SQL seed, and converted to the session time
+ * zone on the way in. Logs the rows and time spent per table.
+ */
+public class CsvSeedDataCallback extends SeedDataCallback {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CsvSeedDataCallback.class);
+
+    private static final String DATA_DIR = "db/csvseed/data/";
+    private static final int BATCH_SIZE = 1000;
+
+    private static final List<String> IDENTITY_TABLES = List.of("tb_category", "tb_product", "tb_role", "tb_user", "tb_order");
+
+    private final boolean nativeLoad;
+
+    public CsvSeedDataCallback(boolean nativeLoad) {
+        this.nativeLoad = nativeLoad;
+    }
+
+    @Override
+    protected void load(Connection connection) throws SQLException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        boolean nativeLoad = this.nativeLoad && "H2".equals(connection.getMetaData().getDatabaseProductName());
+
+        long start = System.nanoTime();
+        for (String table : TABLES) {
+            long tableStart = System.nanoTime();
+            List<String> columns = header(table);
+            int[] types = columnTypes(connection, table, columns);
+            int rows = nativeLoad ? loadWithCsvRead(jdbcTemplate, table, columns, types) : loadWithBatches(connection, table, columns, types);
+            LOG.info("Seed {}: {} linhas em {} ms ({})", table, rows, (System.nanoTime() - tableStart) / 1_000_000,
+                    nativeLoad ? "CSVREAD" : "JDBC em lotes");
+        }
+        for (String table : IDENTITY_TABLES) {
+            Long next = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+        LOG.info("Seed carregado em {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // o banco le e converte o arquivo inteiro num unico comando; os horarios passam pelo tipo com fuso,
+    // para a atribuicao a coluna sem fuso converter para o fuso da sessao
+    private int loadWithCsvRead(JdbcTemplate jdbcTemplate, String table, List<String> columns, int[] types) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            values.add(types[i] == Types.TIMESTAMP ? "CAST(" + columns.get(i) + " AS TIMESTAMP WITH TIME ZONE)" : columns.get(i));
+        }
+        return jdbcTemplate.update("INSERT INTO " + table + " (" + String.join(", ", columns) + ") "
+                + "SELECT " + String.join(", ", values) + " FROM CSVREAD('classpath:/" + DATA_DIR + table + ".csv', NULL, 'charset=UTF-8')");
+    }
+
+    // o driver converte o texto do CSV pelo tipo da coluna; os horarios vao como OffsetDateTime, que o banco
+    // converte para o fuso da sessao
+    private int loadWithBatches(Connection connection, String table, List<String> columns, int[] types) throws SQLException {
+        String columnList = String.join(", ", columns);
+        String placeholders = String.join(", ", columns.stream().map(x -> "?").toList());
+        int rows = 0;
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + " (" + columnList + ") VALUES (" + placeholders + ")");
+             BufferedReader reader = open(table)) {
+            reader.readLine();
+            List<String> values;
+            while ((values = readRecord(reader)) != null) {
+                for (int i = 0; i < types.length; i++) {
+                    if (types[i] == Types.TIMESTAMP && values.get(i) != null) {
+                        insert.setObject(i + 1, OffsetDateTime.parse(values.get(i)));
+                    } else {
+                        insert.setObject(i + 1, values.get(i), types[i]);
+                    }
+                }
+                insert.addBatch();
+                if (++rows % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    // os tipos das colunas vem do proprio banco
+    private static int[] columnTypes(Connection connection, String table, List<String> columns) throws SQLException {
+        int[] types = new int[columns.size()];
+        try (PreparedStatement select = connection.prepareStatement("SELECT " + String.join(", ", columns) + " FROM " + table + " WHERE 1 = 0")) {
+            ResultSetMetaData metaData = select.executeQuery().getMetaData();
+            for (int i = 0; i < types.length; i++) {
+                types[i] = metaData.getColumnType(i + 1);
+            }
+        }
+        return types;
+    }
+
+    private List<String> header(String table) {
+        try (BufferedReader reader = open(table)) {
+            return readRecord(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BufferedReader open(String table) {
+        InputStream input = getClass().getClassLoader().getResourceAsStream(DATA_DIR + table + ".csv");
+        if (input == null) {
+            throw new IllegalStateException("Arquivo de seed nao encontrado: " + DATA_DIR + table + ".csv");
+        }
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    // formato do CSVWRITE do H2: campos entre aspas, aspas dobradas dentro deles, campo vazio sem aspas e nulo
+    private static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null || line.isEmpty()) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!inQuotes) {
+                    break;
+                }
+                // quebra de linha dentro de um campo
+                String next = reader.readLine();
+                if (next == null) {
+                    throw new IOException("Campo entre aspas sem fechamento");
+                }
+                value.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (inQuotes) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    inQuotes = false;
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == ',') {
+                values.add(quoted || !value.isEmpty() ? value.toString() : null);
+                value.setLength(0);
+                quoted = false;
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(quoted || !value.isEmpty() ? value.toString() : null);
+        return values;
+    }
+}
@@ -0,0 +1,34 @@
+package db.migration;
+
+import com.devsuperior.dscommerce.util.TextNormalizer;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+/**
+ * Fills tb_product.search_name for the rows written before the column existed. The folding is
+ * done by {@link TextNormalizer}, the same code the entity uses, since the databases we run on
+ * have no common SQL function for stripping accents.
+ */
+public class V3__backfill_product_search_name extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) {
+        fillSearchNames(new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true)));
+    }
+
+    // tambem usado pelos seeds, que gravam produtos sem search_name depois desta migracao
+    public static void fillSearchNames(JdbcTemplate jdbcTemplate) {
+        List<Object[]> rows = jdbcTemplate.query("SELECT id, name FROM tb_product WHERE search_name IS NULL AND name IS NOT NULL",
+                (rs, rowNum) -> new Object[]{TextNormalizer.normalize(rs.getString("name")), rs.getLong("id")});
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("UPDATE tb_product SET search_name = ? WHERE id = ?",
+                    rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package db.seed;
+
+import db.migration.V3__backfill_product_search_name;
+import org.flywaydb.core.api.callback.BaseCallback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Loads the sample data after every Flyway migrate, in the callback's transaction. The seeds are
+ * callbacks instead of versioned migrations, so nothing about them is recorded in the schema
+ * history: they can be switched on, off or for one another on an existing database without
+ * failing validation. Nothing is loaded unless every seeded table is empty. The seeds run after
+ * every migration, so the search names the V3 backfill would have filled are filled here.
+ */
+public abstract class SeedDataCallback extends BaseCallback {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SeedDataCallback.class);
+
+    // pais antes dos filhos, por causa das chaves estrangeiras
+    protected static final List<String> TABLES = List.of("tb_category", "tb_product", "tb_product_category",
+            "tb_role", "tb_user", "tb_user_role", "tb_order", "tb_order_item", "tb_payment");
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        return event == Event.AFTER_MIGRATE;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        Connection connection = context.getConnection();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        jdbcTemplate.setMaxRows(1);
+        for (String table : TABLES) {
+            if (Boolean.TRUE.equals(jdbcTemplate.query("SELECT 1 FROM " + table, ResultSet::next))) {
+                LOG.info("Seed {} ignorado: {} ja tem linhas", getCallbackName(), table);
+                return;
+            }
+        }
+        try {
+            load(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao carregar o seed " + getCallbackName(), e);
+        }
+        V3__backfill_product_search_name.fillSearchNames(new JdbcTemplate(new SingleConnectionDataSource(connection, true)));
+    }
+
+    protected abstract void load(Connection connection) throws SQLException;
+}
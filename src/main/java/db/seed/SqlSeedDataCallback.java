@@ -0,0 +1,28 @@
+package db.seed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+
+/**
+ * Loads the sample data statement by statement from {@code db/seed/seed_data.sql}, relying on the
+ * identity columns for the ids. Selected by {@code seed.data=sql}, as the test profile does.
+ */
+public class SqlSeedDataCallback extends SeedDataCallback {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqlSeedDataCallback.class);
+
+    private static final String SCRIPT = "db/seed/seed_data.sql";
+
+    @Override
+    protected void load(Connection connection) {
+        long start = System.nanoTime();
+        ScriptUtils.executeSqlScript(connection, new EncodedResource(new ClassPathResource(SCRIPT), StandardCharsets.UTF_8));
+        LOG.info("Seed carregado de {} em {} ms", SCRIPT, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,102 @@
+CREATE TABLE tb_category (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255),
+    CONSTRAINT pk_category PRIMARY KEY (id)
+);
+
+CREATE TABLE tb_product (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255),
+    description TEXT,
+    price FLOAT(53),
+    img_url VARCHAR(255),
+    CONSTRAINT pk_product PRIMARY KEY (id)
+);
+
+CREATE TABLE tb_product_category (
+    product_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    CONSTRAINT pk_product_category PRIMARY KEY (product_id, category_id),
+    CONSTRAINT fk_product_category_product FOREIGN KEY (product_id) REFERENCES tb_product (id),
+    CONSTRAINT fk_product_category_category FOREIGN KEY (category_id) REFERENCES tb_category (id)
+);
+
+CREATE TABLE tb_role (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    authority VARCHAR(255),
+    CONSTRAINT pk_role PRIMARY KEY (id)
+);
+
+CREATE TABLE tb_user (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255),
+    email VARCHAR(255),
+    phone VARCHAR(255),
+    birth_date DATE,
+    password VARCHAR(255),
+    CONSTRAINT pk_user PRIMARY KEY (id),
+    CONSTRAINT uk_user_email UNIQUE (email),
+    CONSTRAINT uk_user_phone UNIQUE (phone)
+);
+
+CREATE TABLE tb_user_role (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    CONSTRAINT pk_user_role PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_role_user FOREIGN KEY (user_id) REFERENCES tb_user (id),
+    CONSTRAINT fk_user_role_role FOREIGN KEY (role_id) REFERENCES tb_role (id)
+);
+
+CREATE TABLE tb_order (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    moment TIMESTAMP WITHOUT TIME ZONE,
+    status TINYINT CHECK (status BETWEEN 0 AND 4),
+    client_id BIGINT,
+    CONSTRAINT pk_order PRIMARY KEY (id),
+    CONSTRAINT fk_order_client FOREIGN KEY (client_id) REFERENCES tb_user (id)
+);
+
+CREATE TABLE tb_order_item (
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER,
+    price FLOAT(53),
+    product_name VARCHAR(255),
+    img_url VARCHAR(255),
+    CONSTRAINT pk_order_item PRIMARY KEY (order_id, product_id),
+    CONSTRAINT fk_order_item_order FOREIGN KEY (order_id) REFERENCES tb_order (id),
+    CONSTRAINT fk_order_item_product FOREIGN KEY (product_id) REFERENCES tb_product (id)
+);
+
+CREATE TABLE tb_payment (
+    order_id BIGINT NOT NULL,
+    moment TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_payment PRIMARY KEY (order_id),
+    CONSTRAINT fk_payment_order FOREIGN KEY (order_id) REFERENCES tb_order (id)
+);
+
+CREATE TABLE tb_revoked_token (
+    id VARCHAR(255) NOT NULL,
+    revoked_at TIMESTAMP WITHOUT TIME ZONE,
+    expires_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_revoked_token PRIMARY KEY (id)
+);
+
+-- produtos de uma categoria: regra de preco por categoria e intervalo de ids
+CREATE INDEX idx_product_category_category ON tb_product_category (category_id, product_id);
+
+-- paginas do catalogo ordenadas por nome ou preco
+CREATE INDEX idx_product_name ON tb_product (name);
+CREATE INDEX idx_product_price ON tb_product (price);
+
+-- usuarios de um perfil
+CREATE INDEX idx_user_role_role ON tb_user_role (role_id);
+
+-- pedidos de um cliente
+CREATE INDEX idx_order_client ON tb_order (client_id);
+
+-- itens de pedido de um produto: checagem de integridade ao apagar o produto
+CREATE INDEX idx_order_item_product ON tb_order_item (product_id);
+
+-- tokens revogados ativos e limpeza dos expirados
+CREATE INDEX idx_revoked_token_expires_at ON tb_revoked_token (expires_at);
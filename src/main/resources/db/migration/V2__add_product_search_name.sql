@@ -0,0 +1,6 @@
+-- nome sem acentos, em minusculas e com espacos colapsados, mantido pela aplicacao a cada gravacao;
+-- os produtos existentes sao preenchidos pela migracao V3
+ALTER TABLE tb_product ADD COLUMN search_name VARCHAR(255);
+
+-- busca por prefixo do nome
+CREATE INDEX idx_product_search_name ON tb_product (search_name);
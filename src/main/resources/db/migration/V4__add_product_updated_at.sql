@@ -0,0 +1,5 @@
+-- momento da ultima gravacao do produto, mantido pela aplicacao; as linhas existentes e as dos seeds
+-- ficam com o momento da carga. A reconciliacao do indice de busca textual le so as linhas alteradas
+ALTER TABLE tb_product ADD COLUMN updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+CREATE INDEX idx_product_updated_at ON tb_product (updated_at);
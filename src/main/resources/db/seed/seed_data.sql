@@ -1,3 +1,4 @@
+-- dados de exemplo para desenvolvimento e testes, carregados por db.seed.SqlSeedDataCallback com seed.data=sql
 INSERT INTO tb_category(name) VALUES ('Livros');
 INSERT INTO tb_category(name) VALUES ('Eletrônicos');
 INSERT INTO tb_category(name) VALUES ('Computadores');
@@ -75,10 +76,10 @@ INSERT INTO tb_order (moment, status, client_id) VALUES (TIMESTAMP WITH TIME ZON
 INSERT INTO tb_order (moment, status, client_id) VALUES (TIMESTAMP WITH TIME ZONE '2022-07-29T15:50:00Z', 3, 2);
 INSERT INTO tb_order (moment, status, client_id) VALUES (TIMESTAMP WITH TIME ZONE '2022-08-03T14:20:00Z', 0, 1);
 
-INSERT INTO tb_order_item (order_id, product_id, quantity, price) VALUES (1, 1, 2, 90.5);
-INSERT INTO tb_order_item (order_id, product_id, quantity, price) VALUES (1, 3, 1, 1250.0);
-INSERT INTO tb_order_item (order_id, product_id, quantity, price) VALUES (2, 3, 1, 1250.0);
-INSERT INTO tb_order_item (order_id, product_id, quantity, price) VALUES (3, 1, 1, 90.5);
+INSERT INTO tb_order_item (order_id, product_id, quantity, price, product_name, img_url) VALUES (1, 1, 2, 90.5, 'The Lord of the Rings', 'https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/1-big.jpg');
+INSERT INTO tb_order_item (order_id, product_id, quantity, price, product_name, img_url) VALUES (1, 3, 1, 1250.0, 'Macbook Pro', 'https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/3-big.jpg');
+INSERT INTO tb_order_item (order_id, product_id, quantity, price, product_name, img_url) VALUES (2, 3, 1, 1250.0, 'Macbook Pro', 'https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/3-big.jpg');
+INSERT INTO tb_order_item (order_id, product_id, quantity, price, product_name, img_url) VALUES (3, 1, 1, 90.5, 'The Lord of the Rings', 'https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/1-big.jpg');
 
 INSERT INTO tb_payment (order_id, moment) VALUES (1, TIMESTAMP WITH TIME ZONE '2022-07-25T15:00:00Z');
 INSERT INTO tb_payment (order_id, moment) VALUES (2, TIMESTAMP WITH TIME ZONE '2022-07-30T11:00:00Z');
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.config.AuthorizationRules;
+import com.devsuperior.dscommerce.controllers.ProductController;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the per-request authorization cost of the compiled route table against
+ * {@code @PreAuthorize} SpEL evaluation, for an admin deleting a product.
+ * The route table figure includes matching the request against every route.
+ * Run with the test classpath, e.g. from the IDE, through {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    private Supplier<Authentication> admin;
+    private RequestMatcherDelegatingAuthorizationManager routeTable;
+    private MockHttpServletRequest request;
+    private PreAuthorizeAuthorizationManager preAuthorize;
+    private SimpleMethodInvocation invocation;
+
+    @Setup
+    public void setUp() throws Exception {
+        Authentication authentication = new TestingAuthenticationToken("maria@gmail.com", null, "ROLE_CLIENT", "ROLE_ADMIN");
+        admin = () -> authentication;
+
+        RequestMatcherDelegatingAuthorizationManager.Builder builder = RequestMatcherDelegatingAuthorizationManager.builder();
+        for (AuthorizationRules.Rule rule : AuthorizationRules.RULES) {
+            builder.add(rule.getMatcher(), rule.getManager());
+        }
+        routeTable = builder.build();
+        request = new MockHttpServletRequest("DELETE", "/products/1");
+        request.setServletPath("/products/1");
+
+        preAuthorize = new PreAuthorizeAuthorizationManager();
+        invocation = new SimpleMethodInvocation(new ProductController(),
+                ProductController.class.getMethod("delete", Long.class), 1L);
+    }
+
+    @Benchmark
+    public AuthorizationDecision routeTable() {
+        return routeTable.check(admin, request);
+    }
+
+    @Benchmark
+    public AuthorizationDecision preAuthorize() {
+        return preAuthorize.check(admin, invocation);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AuthorizationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,171 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.DScommerceDevsuperiorApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load test comparing platform and virtual request threads. Each mode boots the
+ * application on a random port and runs the same mix for a fixed time: order reads (JDBC),
+ * order inserts (JDBC writes) and logins (BCrypt). Prints throughput and latency percentiles.
+ * Run with the test classpath through {@link #main(String[])}; optional arguments are the number
+ * of concurrent clients and the duration in seconds.
+ */
+public class ExecutionModeLoadTest {
+
+    private static final String ORDER_BODY = "{\"items\":[{\"productId\":1,\"quantity\":2},{\"productId\":5,\"quantity\":1}]}";
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        for (boolean virtualThreads : new boolean[] {false, true}) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(DScommerceDevsuperiorApplication.class).run(
+                    "--server.port=0",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN",
+                    "--security.login-throttle.max-failures-per-ip=1000000",
+                    "--virtual-threads.enabled=" + virtualThreads);
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Result result = new ExecutionModeLoadTest(port, context).run(clients, Duration.ofSeconds(seconds));
+                System.out.printf("%-8s clients=%d requests=%d errors=%d throughput=%.1f req/s p50=%.1f ms p99=%.1f ms%n",
+                        virtualThreads ? "virtual" : "platform", clients, result.requests, result.errors,
+                        result.requests / (double) seconds, result.percentile(50), result.percentile(99));
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private final String baseUrl;
+    private final String basicAuth;
+    private final HttpClient http;
+
+    private ExecutionModeLoadTest(int port, ConfigurableApplicationContext context) {
+        this.baseUrl = "http://localhost:" + port;
+        String credentials = context.getEnvironment().getProperty("security.client-id") + ":"
+                + context.getEnvironment().getProperty("security.client-secret");
+        this.basicAuth = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    private Result run(int clients, Duration duration) throws Exception {
+        String token = login();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger errors = new AtomicInteger();
+        List<long[]> latencies = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                long[] samples = new long[1 << 16];
+                latencies.add(samples);
+                int client = i;
+                executor.submit(() -> {
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            int status = switch ((client + n) % 10) {
+                                case 0 -> send(loginRequest());
+                                case 1, 2 -> send(authorized(token).uri(URI.create(baseUrl + "/orders"))
+                                        .header("Content-Type", "application/json")
+                                        .POST(HttpRequest.BodyPublishers.ofString(ORDER_BODY)).build());
+                                default -> send(authorized(token).uri(URI.create(baseUrl + "/orders/1")).GET().build());
+                            };
+                            if (status >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (n < samples.length - 1) {
+                            samples[++n] = System.nanoTime() - start;
+                        }
+                        samples[0] = n;
+                    }
+                    return null;
+                });
+            }
+        }
+        return new Result(latencies, errors.get());
+    }
+
+    private String login() throws Exception {
+        HttpResponse<String> response = http.send(loginRequest(), HttpResponse.BodyHandlers.ofString());
+        return (String) new ObjectMapper().readValue(response.body(), Map.class).get("access_token");
+    }
+
+    private HttpRequest loginRequest() {
+        String form = "grant_type=password&username=" + URLEncoder.encode("alex@gmail.com", StandardCharsets.UTF_8)
+                + "&password=123456";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/oauth2/token"))
+                .header("Authorization", basicAuth)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private HttpRequest.Builder authorized(String token) {
+        return HttpRequest.newBuilder().header("Authorization", "Bearer " + token);
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static class Result {
+
+        private final long[] sorted;
+        private final int requests;
+        private final int errors;
+
+        Result(List<long[]> latencies, int errors) {
+            int total = 0;
+            for (long[] samples : latencies) {
+                total += (int) samples[0];
+            }
+            long[] all = new long[total];
+            int pos = 0;
+            for (long[] samples : latencies) {
+                int n = (int) samples[0];
+                System.arraycopy(samples, 1, all, pos, n);
+                pos += n;
+            }
+            Arrays.sort(all);
+            this.sorted = all;
+            this.requests = total;
+            this.errors = errors;
+        }
+
+        double percentile(double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.DScommerceDevsuperiorApplication;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.entities.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares reading a page of the product listing as full entities mapped to {@link ProductMinDTO}
+ * against selecting the DTO with a constructor expression. The catalog is padded with products
+ * carrying an 8 KB description, which only the entity query reads. Runs with the GC profiler, so
+ * gc.alloc.rate.norm gives the bytes allocated per page.
+ * Run with the test classpath, e.g. from the IDE, through {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListingBenchmark {
+
+    private static final String WHERE_NAME = "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) ORDER BY obj.id";
+
+    private static final int EXTRA_PRODUCTS = 5000;
+
+    @Param({"12", "240"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DScommerceDevsuperiorApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:listingbenchmarkdb",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        String description = "Lorem ipsum dolor sit amet. ".repeat(300);
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO tb_product (name, description, price, img_url) VALUES (?, ?, ?, ?)",
+                IntStream.range(0, EXTRA_PRODUCTS)
+                        .mapToObj(i -> new Object[]{"Product " + i, description, 10.0 + i, "https://img.example.com/" + i + ".jpg"})
+                        .toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductMinDTO> entities() {
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery("SELECT obj FROM Product obj " + WHERE_NAME, Product.class)
+                .setParameter("name", "")
+                .setMaxResults(pageSize)
+                .getResultList()
+                .stream()
+                .map(ProductMinDTO::new)
+                .toList());
+    }
+
+    @Benchmark
+    public List<ProductMinDTO> constructorExpression() {
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) "
+                        + "FROM Product obj " + WHERE_NAME, ProductMinDTO.class)
+                .setParameter("name", "")
+                .setMaxResults(pageSize)
+                .getResultList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProductListingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
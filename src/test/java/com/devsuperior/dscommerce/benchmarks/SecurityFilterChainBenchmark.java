@@ -0,0 +1,116 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.DScommerceDevsuperiorApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of passing a public catalog read through the security filter chains,
+ * with the lean public chain enabled and disabled. The application context is booted once
+ * per trial and the request stops at the end of the security filters.
+ * Run with the test classpath, e.g. from the IDE, through {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    private static final FilterChain END_OF_CHAIN = (request, response) -> {
+    };
+
+    @Param({"true", "false"})
+    private String publicChain;
+
+    private ConfigurableApplicationContext context;
+    private ServletContext servletContext;
+    private Filter springSecurityFilterChain;
+    private String accessToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(DScommerceDevsuperiorApplication.class).run(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--security.public-chain.enabled=" + publicChain);
+        servletContext = ((WebApplicationContext) context).getServletContext();
+        springSecurityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+        accessToken = obtainAccessToken("maria@gmail.com", "123456");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse anonymousGet() throws Exception {
+        return perform(catalogRequest());
+    }
+
+    @Benchmark
+    public MockHttpServletResponse bearerGet() throws Exception {
+        MockHttpServletRequest request = catalogRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
+        return perform(request);
+    }
+
+    private MockHttpServletRequest catalogRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/products");
+        request.setServletPath("/products");
+        request.setParameter("name", "mac");
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        springSecurityFilterChain.doFilter(request, response, END_OF_CHAIN);
+        return response;
+    }
+
+    private String obtainAccessToken(String username, String password) throws Exception {
+        String clientId = context.getEnvironment().getProperty("security.client-id");
+        String clientSecret = context.getEnvironment().getProperty("security.client-secret");
+        String basic = Base64.getEncoder().encodeToString(
+                (clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "POST", "/oauth2/token");
+        request.setServletPath("/oauth2/token");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic " + basic);
+        request.setParameter("grant_type", "password");
+        request.setParameter("username", username);
+        request.setParameter("password", password);
+
+        MockHttpServletResponse response = perform(request);
+        Map<?, ?> body = new ObjectMapper().readValue(response.getContentAsString(), Map.class);
+        return (String) body.get("access_token");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SecurityFilterChainBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,444 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.util.TextNormalizer;
+import db.seed.SqlSeedDataCallback;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.callback.Callback;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Fills a database with a production-sized synthetic catalog: categories, products, users, orders,
+ * order items and payments. Product popularity and the number of orders per user follow Zipf
+ * distributions, so a few products dominate the sales and a few clients buy over and over again,
+ * as in a real shop. The same seed and end date always produce the same rows; orders are spread
+ * over the two years before that date.
+ * Rows are appended after the existing ones with explicit ids through batched JDBC inserts, and
+ * the identity columns are restarted past them, so the application keeps working on top of the
+ * generated data. The schema is migrated first with the application's Flyway migrations, which also
+ * load the SQL sample data into an empty database unless {@code --sample-data=none}. Rows are
+ * committed batch by batch, so a failed run leaves the batches committed before the failure.
+ * Run with the test classpath through {@link #main(String[])} with {@code --name=value} arguments,
+ * e.g. {@code --url=jdbc:h2:file:./target/perf --products=1000000 --users=200000 --orders=2000000}.
+ * Against PostgreSQL, add {@code reWriteBatchedInserts=true} to the URL.
+ */
+public class SyntheticDataGenerator {
+
+    // BCrypt hash of "123456", the password of the seeded users
+    private static final String PASSWORD = "$2a$10$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG";
+
+    private static final String[] CATEGORIES = {"Livros", "Eletrônicos", "Computadores", "Games", "Celulares",
+            "Áudio", "Casa", "Cozinha", "Esporte", "Moda", "Beleza", "Brinquedos", "Ferramentas", "Automotivo",
+            "Papelaria", "Pet Shop", "Jardim", "Saúde", "Música", "Filmes"};
+    private static final String[] NOUNS = {"Notebook", "Monitor", "Teclado", "Mouse", "Cadeira", "Mesa", "Fone",
+            "Caixa de Som", "Câmera", "Smart TV", "Console", "Livro", "Tênis", "Camiseta", "Relógio", "Mochila",
+            "Panela", "Liquidificador", "Furadeira", "Bicicleta"};
+    private static final String[] ADJECTIVES = {"Gamer", "Pro", "Ultra", "Compacto", "Sem Fio", "Portátil",
+            "Premium", "Básico", "Elétrico", "Digital", "Clássico", "Slim", "Turbo", "Max", "Mini", "Plus"};
+    private static final String[] BRANDS = {"Alfa", "Nitro", "Hera", "Tera", "Orion", "Vega", "Atlas", "Zeus",
+            "Lumen", "Apex", "Nova", "Prisma"};
+    private static final String[] WORDS = {"qualidade", "garantia", "resistente", "leve", "potente", "design",
+            "moderno", "bateria", "tela", "conforto", "durável", "econômico", "silencioso", "rápido", "original",
+            "acabamento", "uso", "diário", "profissional", "ideal", "para", "com", "alta", "performance"};
+    private static final String[] FIRST_NAMES = {"Maria", "Alex", "Ana", "João", "Pedro", "Julia", "Lucas",
+            "Beatriz", "Rafael", "Camila", "Bruno", "Larissa", "Felipe", "Mariana", "Gabriel", "Fernanda"};
+    private static final String[] LAST_NAMES = {"Silva", "Souza", "Oliveira", "Santos", "Lima", "Pereira",
+            "Costa", "Rodrigues", "Almeida", "Nascimento", "Brown", "Green", "Blue"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        Config config = new Config();
+        config.products = Integer.parseInt(options.getOrDefault("products", "100000"));
+        config.users = Integer.parseInt(options.getOrDefault("users", "20000"));
+        config.orders = Integer.parseInt(options.getOrDefault("orders", "200000"));
+        config.maxItemsPerOrder = Integer.parseInt(options.getOrDefault("max-items", "5"));
+        config.productSkew = Double.parseDouble(options.getOrDefault("product-skew", "1.0"));
+        config.buyerSkew = Double.parseDouble(options.getOrDefault("buyer-skew", "0.8"));
+        config.batchSize = Integer.parseInt(options.getOrDefault("batch-size", "1000"));
+        config.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        config.until = Instant.parse(options.getOrDefault("until", "2024-01-01T00:00:00Z"));
+
+        String url = options.getOrDefault("url", "jdbc:h2:file:./target/synthetic");
+        String username = options.getOrDefault("username", "sa");
+        String password = options.getOrDefault("password", "");
+
+        String[] locations = options.getOrDefault("locations", "classpath:db/migration").split(",");
+        Callback[] callbacks = "none".equals(options.get("sample-data")) ? new Callback[0] : new Callback[]{new SqlSeedDataCallback()};
+
+        Flyway.configure().dataSource(url, username, password).locations(locations).callbacks(callbacks).load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            new SyntheticDataGenerator(connection, config).generate();
+        }
+    }
+
+    public static class Config {
+
+        public int products;
+        public int users;
+        public int orders;
+        public int maxItemsPerOrder;
+        public double productSkew;
+        public double buyerSkew;
+        public int batchSize;
+        public long seed;
+        public Instant until;
+    }
+
+    private final Connection connection;
+    private final Config config;
+    private final SplittableRandom random;
+
+    private long firstCategoryId;
+    private long firstProductId;
+    private long firstUserId;
+    private long firstOrderId;
+    private double[] prices;
+    private String[] productNames;
+
+    public SyntheticDataGenerator(Connection connection, Config config) {
+        this.connection = connection;
+        this.config = config;
+        this.random = new SplittableRandom(config.seed);
+    }
+
+    public void generate() throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            firstCategoryId = nextId("tb_category");
+            firstProductId = nextId("tb_product");
+            firstUserId = nextId("tb_user");
+            firstOrderId = nextId("tb_order");
+
+            timed("categories", this::insertCategories);
+            timed("products", this::insertProducts);
+            timed("users", this::insertUsers);
+            timed("orders", this::insertOrders);
+
+            restartIdentity("tb_category", firstCategoryId + CATEGORIES.length);
+            restartIdentity("tb_product", firstProductId + config.products);
+            restartIdentity("tb_user", firstUserId + config.users);
+            restartIdentity("tb_order", firstOrderId + config.orders);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void insertCategories() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO tb_category (id, name) VALUES (?, ?)")) {
+            for (int i = 0; i < CATEGORIES.length; i++) {
+                insert.setLong(1, firstCategoryId + i);
+                insert.setString(2, CATEGORIES[i]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void insertProducts() throws SQLException {
+        prices = new double[config.products];
+        productNames = new String[config.products];
+        try (PreparedStatement product = connection.prepareStatement(
+                "INSERT INTO tb_product (id, name, search_name, description, price, img_url) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement category = connection.prepareStatement(
+                     "INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)")) {
+            Batch batch = new Batch(product, category);
+            for (int i = 0; i < config.products; i++) {
+                long id = firstProductId + i;
+                String name = pick(NOUNS) + " " + pick(ADJECTIVES) + " " + pick(BRANDS) + " " + (i + 1);
+                // long-tailed prices: mostly cheap, a few very expensive
+                double price = Math.round(Math.exp(3.0 + random.nextDouble() * 5.5) * 100.0) / 100.0;
+                prices[i] = price;
+                productNames[i] = name;
+
+                product.setLong(1, id);
+                product.setString(2, name);
+                product.setString(3, TextNormalizer.normalize(name));
+                product.setString(4, description());
+                product.setDouble(5, price);
+                product.setString(6, imgUrl(i));
+                product.addBatch();
+
+                int first = random.nextInt(CATEGORIES.length);
+                int count = 1 + random.nextInt(3);
+                for (int c = 0; c < count; c++) {
+                    category.setLong(1, id);
+                    category.setLong(2, firstCategoryId + (first + c) % CATEGORIES.length);
+                    category.addBatch();
+                }
+                batch.added();
+            }
+            batch.flush();
+        }
+    }
+
+    private void insertUsers() throws SQLException {
+        long clientRole = roleId("ROLE_CLIENT");
+        long adminRole = roleId("ROLE_ADMIN");
+        LocalDate oldest = LocalDate.of(1950, 1, 1);
+        try (PreparedStatement user = connection.prepareStatement(
+                "INSERT INTO tb_user (id, name, email, phone, birth_date, password) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement role = connection.prepareStatement(
+                     "INSERT INTO tb_user_role (user_id, role_id) VALUES (?, ?)")) {
+            Batch batch = new Batch(user, role);
+            for (int i = 0; i < config.users; i++) {
+                long id = firstUserId + i;
+                user.setLong(1, id);
+                user.setString(2, pick(FIRST_NAMES) + " " + pick(LAST_NAMES));
+                // ids are unique, so emails and phones are too
+                user.setString(3, "user" + id + "@synthetic.dscommerce.com");
+                user.setString(4, "5" + String.format("%010d", id));
+                user.setObject(5, oldest.plusDays(random.nextInt(365 * 55)));
+                user.setString(6, PASSWORD);
+                user.addBatch();
+
+                role.setLong(1, id);
+                role.setLong(2, clientRole);
+                role.addBatch();
+                if (random.nextInt(1000) == 0) {
+                    role.setLong(1, id);
+                    role.setLong(2, adminRole);
+                    role.addBatch();
+                }
+                batch.added();
+            }
+            batch.flush();
+        }
+    }
+
+    private void insertOrders() throws SQLException {
+        ZipfSampler productSampler = new ZipfSampler(config.products, config.productSkew, random);
+        ZipfSampler buyerSampler = new ZipfSampler(config.users, config.buyerSkew, random);
+        // a fixed end instead of now, otherwise the same seed would not give the same orders
+        Instant end = config.until;
+        long window = ChronoUnit.SECONDS.between(end.minus(730, ChronoUnit.DAYS), end);
+        int[] items = new int[config.maxItemsPerOrder];
+        try (PreparedStatement order = connection.prepareStatement(
+                "INSERT INTO tb_order (id, moment, status, client_id) VALUES (?, ?, ?, ?)");
+             PreparedStatement item = connection.prepareStatement(
+                     "INSERT INTO tb_order_item (order_id, product_id, quantity, price, product_name, img_url) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement payment = connection.prepareStatement(
+                     "INSERT INTO tb_payment (order_id, moment) VALUES (?, ?)")) {
+            Batch batch = new Batch(order, item, payment);
+            for (int i = 0; i < config.orders; i++) {
+                long id = firstOrderId + i;
+                Instant moment = end.minusSeconds(random.nextLong(window));
+                int status = status();
+                order.setLong(1, id);
+                order.setTimestamp(2, Timestamp.from(moment));
+                order.setInt(3, status);
+                order.setLong(4, firstUserId + buyerSampler.next());
+                order.addBatch();
+
+                int count = distinctProducts(productSampler, items, 1 + random.nextInt(config.maxItemsPerOrder));
+                for (int k = 0; k < count; k++) {
+                    int product = items[k];
+                    item.setLong(1, id);
+                    item.setLong(2, firstProductId + product);
+                    item.setInt(3, random.nextInt(10) < 8 ? 1 : 2 + random.nextInt(4));
+                    item.setDouble(4, prices[product]);
+                    item.setString(5, productNames[product]);
+                    item.setString(6, imgUrl(product));
+                    item.addBatch();
+                }
+
+                // paid, shipped and delivered orders have a payment
+                if (status >= 1 && status <= 3) {
+                    payment.setLong(1, id);
+                    payment.setTimestamp(2, Timestamp.from(moment.plusSeconds(60 + random.nextInt(2 * 24 * 3600))));
+                    payment.addBatch();
+                }
+                batch.added();
+            }
+            batch.flush();
+        }
+    }
+
+    // draws up to count distinct products, since (order, product) is the item key
+    private int distinctProducts(ZipfSampler sampler, int[] target, int count) {
+        int size = 0;
+        for (int attempt = 0; size < count && attempt < count * 4; attempt++) {
+            int candidate = sampler.next();
+            boolean repeated = false;
+            for (int k = 0; k < size && !repeated; k++) {
+                repeated = target[k] == candidate;
+            }
+            if (!repeated) {
+                target[size++] = candidate;
+            }
+        }
+        return size;
+    }
+
+    // most past orders were delivered
+    private int status() {
+        int roll = random.nextInt(100);
+        if (roll < 8) {
+            return 0;
+        }
+        if (roll < 18) {
+            return 1;
+        }
+        if (roll < 28) {
+            return 2;
+        }
+        if (roll < 93) {
+            return 3;
+        }
+        return 4;
+    }
+
+    private String description() {
+        StringBuilder text = new StringBuilder();
+        int words = 12 + random.nextInt(40);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(pick(WORDS));
+        }
+        return text.append('.').toString();
+    }
+
+    private static String imgUrl(int product) {
+        return "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/" + (product % 25 + 1) + "-big.jpg";
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private long nextId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private long roleId(String authority) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM tb_role WHERE authority = ?")) {
+            select.setString(1, authority);
+            try (ResultSet result = select.executeQuery()) {
+                if (result.next()) {
+                    return result.getLong(1);
+                }
+            }
+        }
+        long id = nextId("tb_role");
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO tb_role (id, authority) VALUES (?, ?)")) {
+            insert.setLong(1, id);
+            insert.setString(2, authority);
+            insert.executeUpdate();
+        }
+        restartIdentity("tb_role", id + 1);
+        return id;
+    }
+
+    private void restartIdentity(String table, long next) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    private void timed(String label, Step step) throws SQLException {
+        long start = System.nanoTime();
+        step.run();
+        System.out.printf("%-10s %6d ms%n", label, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws SQLException;
+    }
+
+    // executes and commits the statements together, so no item is committed without its order
+    private final class Batch {
+
+        private final PreparedStatement[] statements;
+        private int pending;
+
+        private Batch(PreparedStatement... statements) {
+            this.statements = statements;
+        }
+
+        private void added() throws SQLException {
+            if (++pending == config.batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            for (PreparedStatement statement : statements) {
+                statement.executeBatch();
+            }
+            connection.commit();
+            pending = 0;
+        }
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^skew by binary search
+     * over the cumulative distribution. Ranks are shuffled onto indexes once, so the most popular
+     * items are spread over the id range instead of being the lowest ids.
+     */
+    static final class ZipfSampler {
+
+        private final double[] cumulative;
+        private final int[] indexByRank;
+        private final SplittableRandom random;
+
+        ZipfSampler(int n, double skew, SplittableRandom random) {
+            this.random = random;
+            this.cumulative = new double[n];
+            double sum = 0.0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, skew);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+            this.indexByRank = new int[n];
+            for (int i = 0; i < n; i++) {
+                indexByRank[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = indexByRank[i];
+                indexByRank[i] = indexByRank[j];
+                indexByRank[j] = swap;
+            }
+        }
+
+        int next() {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            rank = rank >= 0 ? rank : Math.min(-rank - 1, cumulative.length - 1);
+            return indexByRank[rank];
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.devsuperior.dscommerce.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+public class AuthorizationModeTests {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(AnnotationsOnly.class);
+
+    @Test
+    public void parseShouldIgnoreCaseAndSurroundingSpaces() {
+
+        Assertions.assertEquals(AuthorizationMode.RULES, AuthorizationMode.parse("rules"));
+        Assertions.assertEquals(AuthorizationMode.RULES, AuthorizationMode.parse(" RULES "));
+        Assertions.assertEquals(AuthorizationMode.ANNOTATIONS, AuthorizationMode.parse("Annotations"));
+    }
+
+    @Test
+    public void parseShouldThrowWhenValueIsUnknownOrMissing() {
+
+        Assertions.assertThrows(IllegalStateException.class, () -> AuthorizationMode.parse("annotation"));
+        Assertions.assertThrows(IllegalStateException.class, () -> AuthorizationMode.parse(""));
+        Assertions.assertThrows(IllegalStateException.class, () -> AuthorizationMode.parse(null));
+    }
+
+    @Test
+    public void annotationsConditionShouldMatchOnlyAnnotationsMode() {
+
+        contextRunner.withPropertyValues(AuthorizationMode.PROPERTY + "=ANNOTATIONS")
+                .run(context -> Assertions.assertTrue(context.containsBean("annotationsOnly")));
+        contextRunner.withPropertyValues(AuthorizationMode.PROPERTY + "=Rules")
+                .run(context -> Assertions.assertFalse(context.containsBean("annotationsOnly")));
+    }
+
+    @Test
+    public void annotationsConditionShouldFailStartupWhenModeIsInvalid() {
+
+        contextRunner.withPropertyValues(AuthorizationMode.PROPERTY + "=rule")
+                .run(context -> Assertions.assertNotNull(context.getStartupFailure()));
+        contextRunner.run(context -> Assertions.assertNotNull(context.getStartupFailure()));
+    }
+
+    @Configuration("annotationsOnly")
+    @Conditional(AuthorizationMode.AnnotationsCondition.class)
+    static class AnnotationsOnly {
+    }
+}
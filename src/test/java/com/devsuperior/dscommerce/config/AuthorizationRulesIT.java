@@ -0,0 +1,120 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.tests.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the route table against the {@code @PreAuthorize} annotations it mirrors, so a handler
+ * added or changed without its rule fails here instead of being served under the wrong roles.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthorizationRulesIT {
+
+    private static final Pattern ROLE = Pattern.compile("'(ROLE_[A-Z_]+)'");
+    private static final Set<String> ROLES = Set.of("ROLE_ADMIN", "ROLE_CLIENT");
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Test
+    public void everyAnnotatedHandlerShouldHaveARuleGrantingTheSameRoles() {
+
+        int checked = 0;
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            PreAuthorize preAuthorize = entry.getValue().getMethodAnnotation(PreAuthorize.class);
+            if (preAuthorize == null) {
+                continue;
+            }
+            Set<String> expected = roles(preAuthorize.value());
+            for (String pattern : entry.getKey().getPatternValues()) {
+                for (RequestMethod method : entry.getKey().getMethodsCondition().getMethods()) {
+                    String route = method + " " + pattern;
+                    String path = pattern.replaceAll("\\{[^}]+}", "1");
+                    MockHttpServletRequest request = new MockHttpServletRequest(method.name(), path);
+                    request.setServletPath(path);
+                    AuthorizationRules.Rule rule = AuthorizationRules.RULES.stream()
+                            .filter(r -> r.getMatcher().matches(request))
+                            .findFirst()
+                            .orElse(null);
+                    Assertions.assertNotNull(rule, "No rule for " + route);
+                    Assertions.assertEquals(expected, granted(rule, request), "Roles of " + route);
+                    checked++;
+                }
+            }
+        }
+        Assertions.assertTrue(checked > 0);
+    }
+
+    @Test
+    public void writeRouteWithoutRuleShouldBeDeniedToAdmin() throws Exception {
+
+        String adminToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+
+        ResultActions result = mockMvc.perform(post("/categories")
+                .header("Authorization", "Bearer " + adminToken));
+
+        result.andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void writeRouteWithoutRuleShouldReturnUnauthorizedWhenNoUserLogged() throws Exception {
+
+        ResultActions result = mockMvc.perform(post("/categories"));
+
+        result.andExpect(status().isUnauthorized());
+    }
+
+    private static Set<String> roles(String expression) {
+        Set<String> roles = new TreeSet<>();
+        Matcher matcher = ROLE.matcher(expression);
+        while (matcher.find()) {
+            roles.add(matcher.group(1));
+        }
+        return roles;
+    }
+
+    private static Set<String> granted(AuthorizationRules.Rule rule, MockHttpServletRequest request) {
+        Set<String> granted = new TreeSet<>();
+        for (String role : ROLES) {
+            AuthorizationDecision decision = rule.getManager().check(
+                    () -> new TestingAuthenticationToken("user", null, role), new RequestAuthorizationContext(request));
+            if (decision != null && decision.isGranted()) {
+                granted.add(role);
+            }
+        }
+        return granted;
+    }
+}
@@ -0,0 +1,133 @@
+package com.devsuperior.dscommerce.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+public class BoundedOAuth2AuthorizationServiceTests {
+
+    private RegisteredClient client;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        client = RegisteredClient.withId("1")
+                .clientId("myclientid")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .build();
+        now = Instant.now();
+    }
+
+    @Test
+    public void saveShouldEvictLeastRecentlyUsedAuthorizationWhenFull() {
+        BoundedOAuth2AuthorizationService service = new BoundedOAuth2AuthorizationService(2);
+        service.save(authorization("a", "maria@gmail.com", "access-a", "refresh-a", now));
+        service.save(authorization("b", "maria@gmail.com", "access-b", "refresh-b", now));
+
+        //usar "a" torna "b" a mais antiga
+        service.findById("a");
+        service.save(authorization("c", "alex@gmail.com", "access-c", "refresh-c", now));
+
+        Assertions.assertEquals(2, service.size());
+        Assertions.assertNull(service.findById("b"));
+        Assertions.assertNull(service.findByToken("refresh-b", OAuth2TokenType.REFRESH_TOKEN));
+        Assertions.assertNull(service.findByToken("access-b", OAuth2TokenType.ACCESS_TOKEN));
+        Assertions.assertNotNull(service.findByToken("refresh-a", OAuth2TokenType.REFRESH_TOKEN));
+        Assertions.assertNotNull(service.findByToken("refresh-c", null));
+        Assertions.assertEquals(1, service.removeByUsername("maria@gmail.com"));
+    }
+
+    @Test
+    public void saveShouldInvalidateOldRefreshTokenWhenRotated() {
+        BoundedOAuth2AuthorizationService service = new BoundedOAuth2AuthorizationService(10);
+        service.save(authorization("a", "maria@gmail.com", "access-1", "refresh-1", now));
+
+        service.save(authorization("a", "maria@gmail.com", "access-2", "refresh-2", now));
+
+        Assertions.assertEquals(1, service.size());
+        Assertions.assertNull(service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+        Assertions.assertNull(service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+        Assertions.assertEquals("a", service.findByToken("refresh-2", OAuth2TokenType.REFRESH_TOKEN).getId());
+        Assertions.assertEquals("a", service.findByToken("access-2", null).getId());
+    }
+
+    @Test
+    public void removeByUsernameShouldDropEverySessionOfTheUserOnly() {
+        BoundedOAuth2AuthorizationService service = new BoundedOAuth2AuthorizationService(10);
+        service.save(authorization("a", "maria@gmail.com", "access-a", "refresh-a", now));
+        service.save(authorization("b", "maria@gmail.com", "access-b", "refresh-b", now.minusSeconds(60)));
+        service.save(authorization("c", "alex@gmail.com", "access-c", "refresh-c", now));
+
+        Assertions.assertEquals(2, service.removeByUsername("maria@gmail.com"));
+
+        Assertions.assertEquals(1, service.size());
+        Assertions.assertNull(service.findByToken("refresh-a", OAuth2TokenType.REFRESH_TOKEN));
+        Assertions.assertNull(service.findByToken("refresh-b", OAuth2TokenType.REFRESH_TOKEN));
+        Assertions.assertNotNull(service.findByToken("refresh-c", OAuth2TokenType.REFRESH_TOKEN));
+        Assertions.assertEquals(0, service.removeByUsername("maria@gmail.com"));
+    }
+
+    @Test
+    public void removeByUsernameAndAuthTimeShouldDropOnlyThatSession() {
+        BoundedOAuth2AuthorizationService service = new BoundedOAuth2AuthorizationService(10);
+        Instant otherLogin = now.minusSeconds(60);
+        service.save(authorization("a", "maria@gmail.com", "access-a", "refresh-a", now));
+        service.save(authorization("b", "maria@gmail.com", "access-b", "refresh-b", otherLogin));
+
+        Assertions.assertEquals(1, service.removeByUsernameAndAuthTime("maria@gmail.com", otherLogin));
+
+        Assertions.assertNotNull(service.findById("a"));
+        Assertions.assertNull(service.findById("b"));
+    }
+
+    @Test
+    public void removeExpiredShouldDropOnlyExpiredAuthorizations() {
+        BoundedOAuth2AuthorizationService service = new BoundedOAuth2AuthorizationService(10);
+        service.save(authorization("a", "maria@gmail.com", "access-a", "refresh-a", now));
+        service.save(expiredAuthorization("b", "alex@gmail.com"));
+
+        Assertions.assertEquals(1, service.removeExpired());
+
+        Assertions.assertEquals(1, service.size());
+        Assertions.assertNull(service.findByToken("refresh-b", OAuth2TokenType.REFRESH_TOKEN));
+        Assertions.assertEquals(0, service.removeByUsername("alex@gmail.com"));
+    }
+
+    private OAuth2Authorization authorization(String id, String username, String accessValue, String refreshValue,
+            Instant authTime) {
+        return builder(id, username, accessValue, authTime, now.plus(Duration.ofMinutes(5)))
+                .refreshToken(new OAuth2RefreshToken(refreshValue, now, now.plus(Duration.ofDays(1))))
+                .build();
+    }
+
+    private OAuth2Authorization expiredAuthorization(String id, String username) {
+        Instant issuedAt = now.minus(Duration.ofDays(2));
+        return builder(id, username, "access-" + id, issuedAt, issuedAt.plus(Duration.ofMinutes(5)))
+                .refreshToken(new OAuth2RefreshToken("refresh-" + id, issuedAt, issuedAt.plus(Duration.ofDays(1))))
+                .build();
+    }
+
+    private OAuth2Authorization.Builder builder(String id, String username, String accessValue, Instant authTime,
+            Instant expiresAt) {
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, accessValue,
+                expiresAt.minus(Duration.ofMinutes(5)), expiresAt);
+        Map<String, Object> claims = Map.of("username", username, "auth_time", authTime);
+        return OAuth2Authorization.withRegisteredClient(client)
+                .id(id)
+                .principalName(username)
+                .authorizationGrantType(AuthorizationGrantType.PASSWORD)
+                .token(accessToken, metadata -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, claims));
+    }
+}
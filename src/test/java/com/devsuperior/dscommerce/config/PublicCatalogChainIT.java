@@ -0,0 +1,78 @@
+package com.devsuperior.dscommerce.config;
+
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PublicCatalogChainIT {
+
+    private static final String INVALID_TOKEN = "invalid.token.value";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JWKSource<SecurityContext> jwkSource;
+
+    private String expiredToken;
+
+    @BeforeEach
+    void setUp() {
+        //assinado com a chave do servidor, mas vencido ha uma hora
+        Instant issuedAt = Instant.now().minus(Duration.ofHours(2));
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("maria@gmail.com")
+                .claim("username", "maria@gmail.com")
+                .claim("authorities", List.of("ROLE_CLIENT"))
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plus(Duration.ofHours(1)))
+                .build();
+        expiredToken = new NimbusJwtEncoder(jwkSource).encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    @Test
+    public void publicCatalogShouldBeServedWhenTokenIsInvalid() throws Exception {
+
+        for (String uri : List.of("/products", "/products/1", "/products/suggest?q=ma", "/categories")) {
+            mockMvc.perform(get(uri).header("Authorization", "Bearer " + INVALID_TOKEN))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void publicCatalogShouldBeServedWhenTokenIsExpired() throws Exception {
+
+        for (String uri : List.of("/products", "/products/1", "/products/suggest?q=ma", "/categories")) {
+            mockMvc.perform(get(uri).header("Authorization", "Bearer " + expiredToken))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void routesOutsideThePublicCatalogShouldStillRejectInvalidToken() throws Exception {
+
+        mockMvc.perform(get("/products/export").header("Authorization", "Bearer " + INVALID_TOKEN))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/products/export").header("Authorization", "Bearer " + expiredToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/users/me").header("Authorization", "Bearer " + expiredToken))
+                .andExpect(status().isUnauthorized());
+    }
+}
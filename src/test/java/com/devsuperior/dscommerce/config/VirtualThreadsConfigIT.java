@@ -0,0 +1,59 @@
+package com.devsuperior.dscommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// banco proprio: o contexto com virtual threads declara o seu proprio pool
+@SpringBootTest(properties = {"virtual-threads.enabled=true", "spring.datasource.url=jdbc:h2:mem:virtualthreadsdb"})
+@AutoConfigureMockMvc
+public class VirtualThreadsConfigIT {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private HikariDataSource pool;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void dataSourceShouldLimitConnectionsWhilePoolStaysInjectableByType() throws Exception {
+
+        ConcurrencyLimitedDataSource limited = Assertions.assertInstanceOf(ConcurrencyLimitedDataSource.class, dataSource);
+        int permits = limited.availablePermits();
+
+        try (Connection connection = dataSource.getConnection()) {
+            Assertions.assertEquals(permits - 1, limited.availablePermits());
+        }
+        Assertions.assertEquals(permits, limited.availablePermits());
+        Assertions.assertSame(pool, limited.getTargetDataSource());
+    }
+
+    @Test
+    public void poolShouldKeepHikariMetrics() {
+
+        Assertions.assertNotNull(meterRegistry.find("hikaricp.connections.max").gauge());
+    }
+
+    @Test
+    public void requestsShouldBeServedThroughLimitedDataSource() throws Exception {
+
+        mockMvc.perform(get("/products/1")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,173 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoginThrottleTests {
+
+    private static final Duration WINDOW = Duration.ofSeconds(60);
+
+    private AtomicLong now;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0L);
+        throttle = throttle(5, 50, 100000);
+    }
+
+    @Test
+    public void isThrottledShouldWeighPreviousWindowByTimeLeftInIt() {
+
+        failures("maria@gmail.com", "10.0.0.1", 4);
+
+        //no fim da janela o estimado ainda e 4
+        now.set(59_999L);
+        Assertions.assertFalse(throttle.isThrottled("maria@gmail.com", "10.0.0.1"));
+
+        //na virada a janela anterior ainda pesa inteira: 4 + 1
+        now.set(60_000L);
+        throttle.recordFailure("maria@gmail.com", "10.0.0.1");
+        Assertions.assertTrue(throttle.isThrottled("maria@gmail.com", "10.0.0.1"));
+
+        //na metade da janela a anterior pesa metade: 2 + 1
+        now.set(90_000L);
+        Assertions.assertFalse(throttle.isThrottled("maria@gmail.com", "10.0.0.1"));
+
+        //duas janelas depois nada sobra
+        now.set(180_000L);
+        failures("maria@gmail.com", "10.0.0.1", 4);
+        Assertions.assertFalse(throttle.isThrottled("maria@gmail.com", "10.0.0.1"));
+    }
+
+    @Test
+    public void isThrottledShouldBlockUsernameAfterMaxFailuresFromAnyIp() {
+
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("maria@gmail.com", "10.0.0." + i);
+        }
+
+        Assertions.assertTrue(throttle.isThrottled("maria@gmail.com", "10.0.0.99"));
+        Assertions.assertFalse(throttle.isThrottled("alex@gmail.com", "10.0.0.1"));
+    }
+
+    @Test
+    public void isThrottledShouldCountUsernameRegardlessOfCaseAndSurroundingSpaces() {
+
+        throttle.recordFailure("alex@gmail.com", "10.0.0.1");
+        throttle.recordFailure("Alex@gmail.com", "10.0.0.2");
+        throttle.recordFailure("ALEX@GMAIL.COM", "10.0.0.3");
+        throttle.recordFailure(" alex@gmail.com ", "10.0.0.4");
+        throttle.recordFailure("aLeX@Gmail.com", "10.0.0.5");
+
+        Assertions.assertTrue(throttle.isThrottled("Alex@Gmail.Com", "10.0.0.99"));
+        Assertions.assertEquals(6, throttle.trackedKeys());
+
+        throttle.recordSuccess("ALEX@gmail.com");
+        Assertions.assertFalse(throttle.isThrottled("alex@gmail.com", "10.0.0.99"));
+    }
+
+    @Test
+    public void isThrottledShouldBlockIpAfterMaxFailuresForAnyUsername() {
+        throttle = throttle(5, 3, 100000);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("user" + i + "@gmail.com", "10.0.0.1");
+        }
+
+        Assertions.assertTrue(throttle.isThrottled("alex@gmail.com", "10.0.0.1"));
+        Assertions.assertTrue(throttle.isThrottled(null, "10.0.0.1"));
+        Assertions.assertFalse(throttle.isThrottled("alex@gmail.com", "10.0.0.2"));
+    }
+
+    @Test
+    public void recordSuccessShouldResetUsernameButNotIp() {
+        throttle = throttle(5, 8, 100000);
+
+        failures("maria@gmail.com", "10.0.0.1", 4);
+        throttle.recordSuccess("maria@gmail.com");
+        failures("maria@gmail.com", "10.0.0.1", 4);
+
+        Assertions.assertFalse(throttle.isThrottled("maria@gmail.com", "10.0.0.2"));
+        Assertions.assertTrue(throttle.isThrottled("maria@gmail.com", "10.0.0.1"));
+    }
+
+    @Test
+    public void recordFailureShouldKeepTrackedKeysBoundedAndEvictLeastRecentlyUsed() {
+        throttle = throttle(1, 1000000, 128);
+
+        //consultar a chave a mantem como a mais recente da sua faixa
+        throttle.recordFailure("maria@gmail.com", null);
+        for (int i = 0; i < 10000; i++) {
+            throttle.recordFailure("user" + i + "@gmail.com", null);
+            Assertions.assertTrue(throttle.isThrottled("maria@gmail.com", null));
+        }
+
+        Assertions.assertTrue(throttle.trackedKeys() <= 128);
+        Assertions.assertTrue(throttle.isThrottled("user9999@gmail.com", null));
+
+        int stillTracked = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (throttle.isThrottled("user" + i + "@gmail.com", null)) {
+                stillTracked++;
+            }
+        }
+        Assertions.assertEquals(0, stillTracked);
+    }
+
+    @Test
+    public void errorHandlerShouldAnswerThrottledLoginWithTooManyRequestsAndRetryAfter() throws Exception {
+        MockHttpServletResponse response = handle(CustomPasswordAuthenticationProvider.TOO_MANY_REQUESTS);
+
+        Assertions.assertEquals(429, response.getStatus());
+        Assertions.assertEquals(String.valueOf(throttle.retryAfterSeconds()), response.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals("60", response.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertTrue(response.getContentAsString().contains(CustomPasswordAuthenticationProvider.TOO_MANY_REQUESTS));
+    }
+
+    @Test
+    public void errorHandlerShouldAnswerOverloadWithServiceUnavailable() throws Exception {
+        MockHttpServletResponse response = handle(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE);
+
+        Assertions.assertEquals(503, response.getStatus());
+        Assertions.assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void errorHandlerShouldAnswerOtherErrorsWithBadRequest() throws Exception {
+        MockHttpServletResponse response = handle(OAuth2ErrorCodes.INVALID_GRANT);
+
+        Assertions.assertEquals(400, response.getStatus());
+        Assertions.assertNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    private MockHttpServletResponse handle(String errorCode) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new CustomTokenErrorResponseHandler(throttle.retryAfterSeconds()).onAuthenticationFailure(
+                new MockHttpServletRequest("POST", "/oauth2/token"), response,
+                new OAuth2AuthenticationException(new OAuth2Error(errorCode)));
+        return response;
+    }
+
+    private void failures(String username, String ip, int count) {
+        for (int i = 0; i < count; i++) {
+            throttle.recordFailure(username, ip);
+        }
+    }
+
+    private LoginThrottle throttle(int maxFailuresPerUser, int maxFailuresPerIp, int maxKeys) {
+        return new LoginThrottle(maxFailuresPerUser, maxFailuresPerIp, WINDOW, maxKeys,
+                new SimpleMeterRegistry(), now::get);
+    }
+}
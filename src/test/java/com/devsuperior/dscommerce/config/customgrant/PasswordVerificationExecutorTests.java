@@ -0,0 +1,104 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PasswordVerificationExecutorTests {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordVerificationExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.destroy();
+    }
+
+    @Test
+    public void matchesShouldRejectWithTemporarilyUnavailableWhenPoolAndQueueAreFull() throws Exception {
+        executor = new PasswordVerificationExecutor(blockingEncoder(), 1, 1, meterRegistry);
+
+        //uma verificacao em andamento e outra na fila ocupam tudo
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.matches("123456", "hash"));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.matches("123456", "hash"));
+        waitForQueueDepth(1);
+
+        OAuth2AuthenticationException e = Assertions.assertThrows(OAuth2AuthenticationException.class,
+                () -> executor.matches("123456", "hash"));
+
+        Assertions.assertEquals(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE, e.getError().getErrorCode());
+        Assertions.assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        Assertions.assertTrue(running.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void matchesShouldRejectWhenOnlyThreadIsBusyAndThereIsNoQueue() throws Exception {
+        executor = new PasswordVerificationExecutor(blockingEncoder(), 1, 0, meterRegistry);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.matches("123456", "hash"));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertThrows(OAuth2AuthenticationException.class, () -> executor.matches("123456", "hash"));
+
+        release.countDown();
+        Assertions.assertTrue(running.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void negativeQueueCapacityShouldQueueAsManyVerificationsAsThreads() throws Exception {
+        executor = new PasswordVerificationExecutor(blockingEncoder(), 1, -1, meterRegistry);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.matches("123456", "hash"));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.matches("123456", "hash"));
+        waitForQueueDepth(1);
+
+        Assertions.assertThrows(OAuth2AuthenticationException.class, () -> executor.matches("123456", "hash"));
+
+        release.countDown();
+        Assertions.assertTrue(running.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        };
+    }
+}
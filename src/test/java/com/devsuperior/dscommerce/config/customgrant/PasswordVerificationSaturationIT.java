@@ -0,0 +1,55 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import com.devsuperior.dscommerce.tests.TokenUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// banco proprio: um so verificador de senha e sem fila, para o teste conseguir satura-lo
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:passwordsaturationdb",
+        "security.password-verification.threads=1", "security.password-verification.queue-capacity=0"})
+@AutoConfigureMockMvc
+public class PasswordVerificationSaturationIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private PasswordVerificationExecutor passwordVerificationExecutor;
+
+    @Test
+    public void tokenShouldReturnServiceUnavailableWithRetryAfterWhenVerifiersAreBusy() throws Exception {
+
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordVerificationExecutor, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        pool.submit(() -> {
+            release.await();
+            return null;
+        });
+        try {
+            ResultActions result = tokenUtil.login(mockMvc, "maria@gmail.com", "123456");
+
+            result.andExpect(status().isServiceUnavailable());
+            result.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            result.andExpect(jsonPath("$.error").value(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE));
+        } finally {
+            release.countDown();
+        }
+    }
+}
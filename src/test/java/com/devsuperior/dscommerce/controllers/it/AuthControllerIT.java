@@ -0,0 +1,223 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.services.UserService;
+import com.devsuperior.dscommerce.tests.TokenUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class AuthControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String clientUsername, clientPassword, adminUsername, adminPassword;
+    private String clientToken, adminToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        clientUsername = "maria@gmail.com";
+        clientPassword = "123456";
+        adminUsername = "alex@gmail.com";
+        adminPassword = "123456";
+
+        clientToken = tokenUtil.obtainAccessToken(mockMvc, clientUsername, clientPassword);
+        adminToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, adminPassword);
+    }
+
+    @Test
+    public void logoutShouldReturnNoContentAndRejectTokenAfterwards() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer " + clientToken));
+
+        result.andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void logoutShouldReturnUnauthorizedWhenNoTokenGiven() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(post("/auth/logout"));
+
+        result.andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void revokeUserTokensShouldReturnNoContentAndRejectUserTokensWhenAdminLogged() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(post("/auth/revoke")
+                        .param("username", clientUsername)
+                        .header("Authorization", "Bearer " + adminToken));
+
+        result.andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void logoutShouldRejectRefreshTokenOfSameSession() throws Exception {
+
+        Map<String, Object> tokens = tokenUtil.obtainTokens(mockMvc, clientUsername, clientPassword);
+
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer " + tokens.get("access_token")))
+                .andExpect(status().isNoContent());
+
+        tokenUtil.refresh(mockMvc, tokens.get("refresh_token").toString())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid_grant"));
+    }
+
+    @Test
+    public void logoutShouldKeepRefreshTokenOfOtherSessions() throws Exception {
+
+        Map<String, Object> tokens = tokenUtil.obtainTokens(mockMvc, clientUsername, clientPassword);
+        //auth_time tem resolucao de segundos: garante que o segundo login abre outra sessao
+        Thread.sleep(1100);
+        Map<String, Object> otherSession = tokenUtil.obtainTokens(mockMvc, clientUsername, clientPassword);
+
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer " + tokens.get("access_token")))
+                .andExpect(status().isNoContent());
+
+        tokenUtil.refresh(mockMvc, otherSession.get("refresh_token").toString())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void revokeUserTokensShouldRejectUserRefreshTokens() throws Exception {
+
+        Map<String, Object> tokens = tokenUtil.obtainTokens(mockMvc, clientUsername, clientPassword);
+
+        mockMvc.perform(post("/auth/revoke")
+                        .param("username", clientUsername)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        tokenUtil.refresh(mockMvc, tokens.get("refresh_token").toString())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid_grant"));
+    }
+
+    @Test
+    public void revokeUserTokensShouldBlockNewLogins() throws Exception {
+
+        mockMvc.perform(post("/auth/revoke")
+                        .param("username", clientUsername)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        tokenUtil.login(mockMvc, clientUsername, clientPassword)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("access_denied"));
+        tokenUtil.login(mockMvc, adminUsername, adminPassword)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void unlockShouldAllowNewLoginsButKeepOldTokensRevoked() throws Exception {
+
+        mockMvc.perform(post("/auth/revoke")
+                        .param("username", clientUsername)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/auth/unlock")
+                        .param("username", clientUsername)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+        //auth_time tem resolucao de segundos: o novo login precisa ser posterior a revogacao
+        Thread.sleep(1100);
+        String newToken = tokenUtil.obtainAccessToken(mockMvc, clientUsername, clientPassword);
+        mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + newToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void unlockShouldReturnForbiddenWhenClientLogged() throws Exception {
+
+        mockMvc.perform(post("/auth/unlock")
+                        .param("username", clientUsername)
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void refreshShouldIssueAccessTokenWithCurrentRoles() throws Exception {
+
+        Map<String, Object> tokens = tokenUtil.obtainTokens(mockMvc, clientUsername, clientPassword);
+        mockMvc.perform(get("/actuator/metrics")
+                        .header("Authorization", "Bearer " + tokens.get("access_token")))
+                .andExpect(status().isForbidden());
+
+        //o perfil concedido depois do login vale a partir do proximo refresh
+        jdbcTemplate.update("INSERT INTO tb_user_role (user_id, role_id) VALUES (1, 2)");
+        userService.evictCredentials(clientUsername);
+        try {
+            Map<String, Object> refreshed = tokenUtil.parseTokens(tokenUtil.refresh(mockMvc, tokens.get("refresh_token").toString()));
+
+            mockMvc.perform(get("/actuator/metrics")
+                            .header("Authorization", "Bearer " + refreshed.get("access_token")))
+                    .andExpect(status().isOk());
+        } finally {
+            //o rollback desfaz o perfil, mas nao o cache de usuarios
+            userService.evictCredentials(clientUsername);
+        }
+    }
+
+    @Test
+    public void revokeUserTokensShouldReturnForbiddenWhenClientLogged() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(post("/auth/revoke")
+                        .param("username", adminUsername)
+                        .header("Authorization", "Bearer " + clientToken));
+
+        result.andExpect(status().isForbidden());
+    }
+}
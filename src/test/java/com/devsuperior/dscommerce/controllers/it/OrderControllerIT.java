@@ -21,6 +21,7 @@ import java.time.Instant;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -95,6 +96,27 @@ public class OrderControllerIT {
 
     }
 
+    @Test
+    public void findByIdShouldReturnProductNameFromOrderTimeWhenProductWasRenamed() throws Exception {
+
+        mockMvc.perform(patch("/products/{id}", 3L)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content("{\"name\": \"Macbook Air\"}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        ResultActions resultActions = mockMvc
+                .perform(get("/orders/{id}", existingOrderId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        resultActions.andExpect(status().isOk());
+        resultActions.andExpect(jsonPath("$.items[1].productId").value(3L));
+        resultActions.andExpect(jsonPath("$.items[1].name").value("Macbook Pro"));
+        resultActions.andExpect(jsonPath("$.items[1].imgUrl").value("https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/3-big.jpg"));
+    }
+
     @Test
     public void findByIdShouldReturnOrderDTOWhenIdExistsClientLogged() throws Exception {
 
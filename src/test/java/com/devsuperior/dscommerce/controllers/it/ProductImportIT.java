@@ -0,0 +1,139 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.tests.TokenUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// banco proprio: as insercoes consomem ids da identity mesmo com rollback e os outros ITs contam com eles
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:productimportdb")
+@AutoConfigureMockMvc
+@Transactional
+public class ProductImportIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    private String clientToken, adminToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        clientToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+        adminToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+    }
+
+    @Test
+    public void importShouldInsertValidLinesAndReportInvalidOnesWhenAdminLogged() throws Exception {
+
+        String body = """
+                {"name":"Console PlayStation 5","description":"Lorem ipsum dolor sit amet","price":3999.9,"imgUrl":"","categories":[{"id":2}]}
+                {"name":"PS","description":"Lorem ipsum dolor sit amet","price":3999.9,"categories":[{"id":2}]}
+                {"name":"Console Xbox Series X","description":"Lorem ipsum dolor sit amet","price":3799.9,"categories":[{"id":99}]}
+                {"name":"Console Xbox Series S","description":"Lorem ipsum dolor sit amet","price":2499.9,"categories":[{"id":2},{"id":3}]}
+                """;
+
+        ResultActions result =
+                mockMvc.perform(post("/products/import")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.processed").value(4));
+        result.andExpect(jsonPath("$.inserted").value(2));
+        result.andExpect(jsonPath("$.failed").value(2));
+        result.andExpect(jsonPath("$.errors[0].line").value(2));
+        result.andExpect(jsonPath("$.errors[1].line").value(3));
+    }
+
+    @Test
+    public void importShouldReadCsvWithHeaderWhenAdminLogged() throws Exception {
+
+        String body = """
+                name,description,price,imgUrl,categories
+                "Monitor 27"", 4K","Lorem ipsum dolor sit amet",1999.9,,2|3
+                """;
+
+        ResultActions result =
+                mockMvc.perform(post("/products/import")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body)
+                        .contentType("text/csv")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.processed").value(1));
+        result.andExpect(jsonPath("$.inserted").value(1));
+        result.andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @Test
+    public void importShouldUpdateExistingIdAndRejectUnknownIdWhenUpsert() throws Exception {
+
+        String body = """
+                {"id":1,"name":"The Lord of the Rings","description":"Lorem ipsum dolor sit amet","price":100.0,"categories":[{"id":1}]}
+                {"id":9999,"name":"Console Xbox Series S","description":"Lorem ipsum dolor sit amet","price":2499.9,"categories":[{"id":2}]}
+                """;
+
+        ResultActions result =
+                mockMvc.perform(post("/products/import?upsert=true")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.updated").value(1));
+        result.andExpect(jsonPath("$.inserted").value(0));
+        result.andExpect(jsonPath("$.failed").value(1));
+        result.andExpect(jsonPath("$.errors[0].line").value(2));
+    }
+
+    @Test
+    public void importShouldRejectIdWhenNotUpsert() throws Exception {
+
+        String body = """
+                {"id":1,"name":"The Lord of the Rings","description":"Lorem ipsum dolor sit amet","price":100.0,"categories":[{"id":1}]}
+                """;
+
+        ResultActions result =
+                mockMvc.perform(post("/products/import")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.updated").value(0));
+        result.andExpect(jsonPath("$.inserted").value(0));
+        result.andExpect(jsonPath("$.failed").value(1));
+    }
+
+    @Test
+    public void importShouldReturnForbiddenWhenClientLogged() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(post("/products/import")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content("{}")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isForbidden());
+    }
+}
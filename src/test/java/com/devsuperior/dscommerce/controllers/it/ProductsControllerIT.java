@@ -1,24 +1,34 @@
 package com.devsuperior.dscommerce.controllers.it;
 
+import com.devsuperior.dscommerce.controllers.ProductController;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.tests.TokenUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.concurrent.Semaphore;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -35,6 +45,9 @@ public class ProductsControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductController productController;
+
     private String clientUsername, clientPassword, adminUsername, adminPassword;
     private String clientToken, adminToken, invalidToken;
     private Long existingId, nonExistingId, dependentId;
@@ -96,6 +109,152 @@ public class ProductsControllerIT {
         result.andExpect(jsonPath("$.content[0].imgUrl").value("https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/3-big.jpg"));
     }
 
+    @Test
+    public void findAllShouldIgnoreAccentsCaseAndExtraSpacesInProductName() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(get("/products?name={productName}", "  MÁCBOOK   pro ")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.totalElements").value(1));
+        result.andExpect(jsonPath("$.content[0].id").value(3L));
+    }
+
+    @Test
+    public void findAllShouldMatchRenamedProductWithoutAccents() throws Exception {
+
+        mockMvc.perform(patch("/products/{id}", existingId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content("{\"name\": \"Câmera Fotográfica\"}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        ResultActions result =
+                mockMvc.perform(get("/products?name={productName}", "camera foto")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.content[0].id").value(existingId));
+        result.andExpect(jsonPath("$.content[0].name").value("Câmera Fotográfica"));
+    }
+
+    @Test
+    public void findAllShouldReturnProductWithSimilarNameWhenModeIsFuzzy() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(get("/products?name={productName}&mode=FUZZY", "macbok")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.content[0].id").value(3L));
+        result.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"));
+    }
+
+    @Test
+    public void findAllShouldReturnRankedProductsWhenModeIsFullText() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(get("/products?name={productName}&mode=FULLTEXT", "RINGS")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.totalElements").value(1));
+        result.andExpect(jsonPath("$.content[0].id").value(1L));
+        result.andExpect(jsonPath("$.content[0].name").value("The Lord of the Rings"));
+    }
+
+    @Test
+    public void findAllShouldReturnBadRequestWhenModeIsUnknown() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(get("/products?name={productName}&mode=SOUNDEX", "macbok")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void suggestShouldReturnMatchingProductNamesWhenQueryIsPrefix() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(get("/products/suggest?q={q}", "MÁC")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.length()").value(1));
+        result.andExpect(jsonPath("$[0].id").value(3L));
+        result.andExpect(jsonPath("$[0].name").value("Macbook Pro"));
+    }
+
+    @Test
+    public void suggestShouldReturnEmptyListWhenQueryIsBlank() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(get("/products/suggest")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void exportShouldStreamEveryProductWithCategoriesAsNdjson() throws Exception {
+
+        MvcResult started = mockMvc.perform(get("/products/export")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        ResultActions result = mockMvc.perform(asyncDispatch(started));
+
+        result.andExpect(status().isOk());
+        result.andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        String[] lines = result.andReturn().getResponse().getContentAsString().split("\n");
+        Assertions.assertEquals(25, lines.length);
+
+        ProductDTO first = objectMapper.readValue(lines[0], ProductDTO.class);
+        Assertions.assertEquals(1L, first.getId());
+        Assertions.assertEquals("The Lord of the Rings", first.getName());
+        Assertions.assertFalse(first.getCategories().isEmpty());
+    }
+
+    @Test
+    public void exportShouldReturnUnauthorizedWhenNoUserLogged() throws Exception {
+
+        ResultActions result = mockMvc.perform(get("/products/export"));
+
+        result.andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void exportShouldReturnForbiddenWhenClientLogged() throws Exception {
+
+        ResultActions result = mockMvc.perform(get("/products/export")
+                .header("Authorization", "Bearer " + clientToken));
+
+        result.andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void exportShouldReturnServiceUnavailableWhenConcurrentExportLimitReached() throws Exception {
+
+        ProductController target = AopTestUtils.getTargetObject(productController);
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(target, "exportPermits");
+        int drained = permits.drainPermits();
+        try {
+            ResultActions result = mockMvc.perform(get("/products/export")
+                    .header("Authorization", "Bearer " + adminToken));
+
+            result.andExpect(status().isServiceUnavailable());
+            result.andExpect(header().string("Retry-After", "1"));
+        } finally {
+            permits.release(drained);
+        }
+    }
+
     @Test
     public void findByIdShouldReturnProductDTOWhenIdExists() throws Exception {
 
@@ -453,6 +612,114 @@ public class ProductsControllerIT {
         result.andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void patchShouldChangeOnlyPriceWhenAdminLogged() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(patch("/products/{id}", existingId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content("{\"price\": 2500.0}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.id").value(existingId));
+        result.andExpect(jsonPath("$.name").value("Smart TV"));
+        result.andExpect(jsonPath("$.price").value(2500.0));
+        result.andExpect(jsonPath("$.categories.length()").value(2));
+    }
+
+    @Test
+    public void patchShouldReturnUnprocessableEntityWhenPriceIsNegative() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(patch("/products/{id}", existingId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content("{\"price\": -1.0}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void patchShouldReturnForbiddenWhenClientLogged() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(patch("/products/{id}", existingId)
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content("{\"price\": 2500.0}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void updatePricesShouldApplyGivenPricesAndReportUnknownIdsWhenAdminLogged() throws Exception {
+
+        String body = "{\"prices\": [{\"id\": " + existingId + ", \"price\": 1999.0}, {\"id\": " + nonExistingId + ", \"price\": 10.0}]}";
+
+        ResultActions result =
+                mockMvc.perform(put("/products/prices")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.updated").value(1));
+        result.andExpect(jsonPath("$.notFound[0]").value(nonExistingId));
+
+        mockMvc.perform(get("/products/{id}", existingId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.price").value(1999.0));
+    }
+
+    @Test
+    public void updatePricesShouldApplyPercentToCategoryWhenAdminLogged() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(put("/products/prices")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content("{\"categoryId\": 1, \"percent\": 10.0}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.updated").value(2));
+
+        mockMvc.perform(get("/products/{id}", 1L).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.price").value(99.55));
+        mockMvc.perform(get("/products/{id}", 5L).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.price").value(111.09));
+    }
+
+    @Test
+    public void updatePricesShouldReturnUnprocessableEntityWhenNeitherPricesNorRuleGiven() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(put("/products/prices")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content("{\"categoryId\": 1}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void updatePricesShouldReturnForbiddenWhenClientLogged() throws Exception {
+
+        ResultActions result =
+                mockMvc.perform(put("/products/prices")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content("{\"categoryId\": 1, \"percent\": 10.0}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isForbidden());
+    }
+
     @Test
     public void deleteShouldReturnForbiddenWhenIdExistsAndClientLogged() throws Exception {
 
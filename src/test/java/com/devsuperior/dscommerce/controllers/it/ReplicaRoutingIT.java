@@ -0,0 +1,92 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.tests.TokenUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// dois bancos H2 separados fazem o papel de primario e replica, sem replicacao entre eles
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingprimarydb",
+        "datasource.routing.enabled=true",
+        "datasource.replica.url=jdbc:h2:mem:routingreplicadb;DB_CLOSE_DELAY=-1",
+        "datasource.replica.migrate=true"})
+@AutoConfigureMockMvc
+public class ReplicaRoutingIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    private String clientToken, otherAdminToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        clientToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+        otherAdminToken = tokenUtil.obtainAccessToken(mockMvc, "ana@gmail.com", "123456");
+    }
+
+    @Test
+    public void readOnlyTransactionShouldReadFromReplica() throws Exception {
+
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        primary.update("UPDATE tb_product SET name = 'Renamed on primary' WHERE id = 1");
+        try {
+            mockMvc.perform(get("/products/{id}", 1L).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value("The Lord of the Rings"));
+        } finally {
+            primary.update("UPDATE tb_product SET name = 'The Lord of the Rings' WHERE id = 1");
+        }
+    }
+
+    @Test
+    public void readOnlyTransactionShouldUsePrimaryOnlyForUserWhoJustWrote() throws Exception {
+
+        String jsonBody = "{\"items\":[{\"productId\":1,\"quantity\":2}]}";
+        MvcResult result = mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content(jsonBody)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long orderId = objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(get("/orders/{id}", orderId)
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(orderId));
+
+        mockMvc.perform(get("/orders/{id}", orderId)
+                        .header("Authorization", "Bearer " + otherAdminToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,105 @@
+package com.devsuperior.dscommerce.repositories;
+
+import db.csvseed.CsvSeedDataCallback;
+import db.seed.SqlSeedDataCallback;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.callback.Callback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migrates one database with the SQL seed and others with the CSV seed, through both of its load
+ * paths, and compares every seeded table row by row. The sessions run outside UTC, so timestamps
+ * only match when both seeds convert their offsets to the session time zone.
+ */
+public class CsvSeedMigrationIT {
+
+    private static final String TIME_ZONE = "America/Sao_Paulo";
+
+    private static final Map<String, String> TABLES = Map.of(
+            "tb_category", "id",
+            "tb_product", "id",
+            "tb_product_category", "product_id, category_id",
+            "tb_role", "id",
+            "tb_user", "id",
+            "tb_user_role", "user_id, role_id",
+            "tb_order", "id",
+            "tb_order_item", "order_id, product_id",
+            "tb_payment", "order_id");
+
+    private static JdbcTemplate sqlSeed;
+
+    @BeforeAll
+    static void migrateSqlSeed() {
+        sqlSeed = migrate("sqlseed", new SqlSeedDataCallback());
+    }
+
+    @Test
+    public void csvReadSeedShouldLoadSameRowsAsSqlSeed() {
+        JdbcTemplate csvSeed = migrate("csvseednative", new CsvSeedDataCallback(true));
+
+        assertSameRows(csvSeed);
+    }
+
+    @Test
+    public void batchedJdbcSeedShouldLoadSameRowsAsSqlSeed() {
+        JdbcTemplate csvSeed = migrate("csvseedjdbc", new CsvSeedDataCallback(false));
+
+        assertSameRows(csvSeed);
+    }
+
+    @Test
+    public void seedsShouldStoreTimestampsInSessionTimeZone() {
+        JdbcTemplate csvSeed = migrate("csvseedzone", new CsvSeedDataCallback(false));
+
+        //2022-07-25T13:00:00Z em Sao Paulo (UTC-3)
+        LocalDateTime expected = LocalDateTime.of(2022, 7, 25, 10, 0);
+        String sql = "SELECT moment FROM tb_order WHERE id = 1";
+        Assertions.assertEquals(expected, sqlSeed.queryForObject(sql, LocalDateTime.class));
+        Assertions.assertEquals(expected, csvSeed.queryForObject(sql, LocalDateTime.class));
+    }
+
+    @Test
+    public void csvSeedShouldRestartIdentitiesPastLoadedIds() {
+        JdbcTemplate csvSeed = migrate("csvseedidentity", new CsvSeedDataCallback(true));
+
+        csvSeed.update("INSERT INTO tb_product (name, price) VALUES ('Novo', 10.0)");
+
+        Assertions.assertEquals(26L, csvSeed.queryForObject("SELECT id FROM tb_product WHERE name = 'Novo'", Long.class));
+    }
+
+    private void assertSameRows(JdbcTemplate csvSeed) {
+        TABLES.forEach((table, order) -> {
+            String sql = "SELECT * FROM " + table + " ORDER BY " + order;
+            List<Map<String, Object>> expected = rows(sqlSeed, sql);
+            Assertions.assertFalse(expected.isEmpty(), table);
+            Assertions.assertEquals(expected, rows(csvSeed, sql), table);
+        });
+    }
+
+    //updated_at registra o momento da carga, diferente em cada banco
+    private static List<Map<String, Object>> rows(JdbcTemplate jdbcTemplate, String sql) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
+        rows.forEach(row -> row.remove("UPDATED_AT"));
+        return rows;
+    }
+
+    private static JdbcTemplate migrate(String database, Callback seed) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;TIME ZONE=" + TIME_ZONE, "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .callbacks(seed)
+                .load()
+                .migrate();
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,168 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.ProductExportProjection;
+import com.devsuperior.dscommerce.tests.StatementRecorder;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Runs EXPLAIN on the SQL that Hibernate issues for each repository query and fails when a
+ * table outside {@link #SMALL_TABLES} is read in full. Queries that must read the whole table
+ * declare it explicitly.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.devsuperior.dscommerce.tests.StatementRecorder")
+public class RepositoryQueryPlanIT {
+
+    private static final Set<String> SMALL_TABLES = Set.of("TB_CATEGORY", "TB_ROLE");
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan \\*/");
+    private static final Pattern INDEX_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+) \\*/");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void productFindByIdShouldNotScanLargeTables() {
+        //o cache de segundo nivel e compartilhado entre contextos; sem limpar, nenhum SQL seria emitido
+        entityManagerFactory.getCache().evict(Product.class);
+        assertNoFullScan(() -> productRepository.findById(1L).map(Product::getCategories).map(Set::size));
+    }
+
+    @Test
+    public void searchByNameShouldNotScanLargeTables() {
+        //o H2 so transforma o LIKE em faixa do indice quando o padrao e conhecido
+        assertNoFullScanWithParameters(new Object[]{"mac%", 12},
+                () -> productRepository.searchByName("mac%", PageRequest.of(0, 12, Sort.by("price"))));
+    }
+
+    @Test
+    public void searchMinByIdsShouldNotScanLargeTables() {
+        assertNoFullScan(() -> productRepository.searchMinByIds(List.of(1L, 3L)));
+    }
+
+    @Test
+    public void streamAllForExportShouldScanOnlyProductTable() {
+        //a exportacao le o catalogo inteiro
+        assertNoFullScan(() -> {
+            try (Stream<ProductExportProjection> rows = productRepository.streamAllForExport()) {
+                rows.count();
+            }
+        }, "TB_PRODUCT");
+    }
+
+    @Test
+    public void findIdsByCategoryAfterShouldNotScanLargeTables() {
+        assertNoFullScan(() -> productRepository.findIdsByCategoryAfter(3L, 1L, 10));
+    }
+
+    @Test
+    public void applyPriceFactorByCategoryShouldNotScanLargeTables() {
+        assertNoFullScan(() -> productRepository.applyPriceFactorByCategory(3L, 1.05, 1L, 10L));
+    }
+
+    @Test
+    public void orderQueriesShouldNotScanLargeTables() {
+        assertNoFullScan(() -> {
+            orderRepository.findClientIdById(1L);
+            orderRepository.findById(1L).ifPresent(order -> order.getItems().size());
+        });
+    }
+
+    @Test
+    public void userQueriesShouldNotScanLargeTables() {
+        assertNoFullScan(() -> {
+            userRepository.searchUserAndRolesByEmail("maria@gmail.com");
+            userRepository.findByEmail("maria@gmail.com").ifPresent(user -> user.getRoles().size());
+        });
+    }
+
+    @Test
+    public void revokedTokenQueriesShouldNotScanLargeTables() {
+        assertNoFullScan(() -> {
+            revokedTokenRepository.findActiveIds(Instant.now());
+            revokedTokenRepository.deleteExpired(Instant.now());
+        });
+    }
+
+    private void assertNoFullScan(Runnable queries, String... allowedTables) {
+        assertNoFullScanWithParameters(new Object[0], queries, allowedTables);
+    }
+
+    private void assertNoFullScanWithParameters(Object[] parameters, Runnable queries, String... allowedTables) {
+        StatementRecorder.clear();
+        queries.run();
+        List<String> statements = StatementRecorder.statements();
+        Assertions.assertFalse(statements.isEmpty());
+
+        Set<String> allowed = Set.of(allowedTables);
+        for (String sql : statements) {
+            String plan = explain(sql, parameters);
+            for (String table : scannedTables(plan)) {
+                if (!SMALL_TABLES.contains(table) && !allowed.contains(table)) {
+                    Assertions.fail("Full scan of " + table + " in plan:\n" + plan);
+                }
+            }
+        }
+    }
+
+    //parametros sem valor ficam nulos; cada consulta recebe so os primeiros que ela declara
+    private String explain(String sql, Object[] parameters) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("EXPLAIN " + sql);
+            int count = Math.min(parameters.length, ps.getParameterMetaData().getParameterCount());
+            for (int i = 0; i < count; i++) {
+                ps.setObject(i + 1, parameters[i]);
+            }
+            return ps;
+        }, rs -> {
+            rs.next();
+            return rs.getString(1);
+        });
+    }
+
+    //H2 marca a leitura completa como tableScan, ou com o nome do indice sem condicao
+    private List<String> scannedTables(String plan) {
+        List<String> tables = new ArrayList<>();
+        Matcher tableScan = TABLE_SCAN.matcher(plan);
+        while (tableScan.find()) {
+            tables.add(tableScan.group(1));
+        }
+        Matcher indexScan = INDEX_SCAN.matcher(plan);
+        while (indexScan.find()) {
+            tables.add(jdbcTemplate.queryForObject(
+                    "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = ?", String.class, indexScan.group(1)));
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,81 @@
+package com.devsuperior.dscommerce.repositories;
+
+import db.csvseed.CsvSeedDataCallback;
+import db.seed.SqlSeedDataCallback;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.callback.Callback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs Flyway more than once on the same database with different seed settings, as a deployment
+ * that changes seed.data would, and checks the schema history never gets in the way.
+ */
+public class SeedDataCallbackIT {
+
+    @Test
+    public void seedShouldLoadOnlyOnceWhenMigrateRunsAgain() {
+        DataSource dataSource = dataSource("seedtwice");
+
+        migrate(dataSource, new SqlSeedDataCallback());
+        migrate(dataSource, new SqlSeedDataCallback());
+
+        Assertions.assertEquals(25L, count(dataSource, "tb_product"));
+    }
+
+    @Test
+    public void seedShouldFillProductSearchNames() {
+        DataSource dataSource = dataSource("seedsearchname");
+
+        migrate(dataSource, new CsvSeedDataCallback(true));
+
+        Assertions.assertEquals("the lord of the rings", new JdbcTemplate(dataSource).queryForObject(
+                "SELECT search_name FROM tb_product WHERE id = 1", String.class));
+        Assertions.assertEquals(0L, new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM tb_product WHERE search_name IS NULL", Long.class));
+    }
+
+    @Test
+    public void switchingSeedShouldKeepExistingData() {
+        DataSource dataSource = dataSource("seedswitch");
+
+        migrate(dataSource, new SqlSeedDataCallback());
+        migrate(dataSource, new CsvSeedDataCallback(true));
+        migrate(dataSource);
+
+        Assertions.assertEquals(25L, count(dataSource, "tb_product"));
+        Assertions.assertEquals(3L, count(dataSource, "tb_order"));
+    }
+
+    @Test
+    public void seedShouldLoadWhenEnabledOnDatabaseMigratedWithoutIt() {
+        DataSource dataSource = dataSource("seedlater");
+
+        migrate(dataSource);
+        Assertions.assertEquals(0L, count(dataSource, "tb_product"));
+
+        migrate(dataSource, new SqlSeedDataCallback());
+        Assertions.assertEquals(25L, count(dataSource, "tb_product"));
+    }
+
+    private static long count(DataSource dataSource, String table) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private static DataSource dataSource(String database) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static void migrate(DataSource dataSource, Callback... seed) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .callbacks(seed)
+                .load()
+                .migrate();
+    }
+}
@@ -3,6 +3,7 @@ package com.devsuperior.dscommerce.services;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
 import com.devsuperior.dscommerce.tests.UserFactory;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +22,9 @@ public class AuthServiceTests {
     @Mock
     private UserService userService;
 
+    @Mock
+    private CustomUserUtil customUserUtil;
+
     private User admin, selfClient, otherClient;
 
     @BeforeEach
@@ -28,6 +32,8 @@ public class AuthServiceTests {
         admin = UserFactory.createAdmintUser();
         selfClient = UserFactory.createCustomClientUser(1L, "Bob");
         otherClient = UserFactory.createCustomClientUser(2L, "Ana");
+
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(null);
     }
 
     @Test
@@ -68,4 +74,42 @@ public class AuthServiceTests {
 
     }
 
+    @Test
+    public void validateSelfOrAdminShouldNotLoadUserWhenJwtHasAdminAuthority() {
+
+        Mockito.when(customUserUtil.loggedUserHasAuthority("ROLE_ADMIN")).thenReturn(true);
+
+        Long userId = otherClient.getId();
+
+        Assertions.assertDoesNotThrow(() -> {
+            service.validateSelfOrAdmin(userId);
+        });
+        Mockito.verify(userService, Mockito.never()).authenticated();
+    }
+
+    @Test
+    public void validateSelfOrAdminShouldNotLoadUserWhenJwtHasSelfUserId() {
+
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(selfClient.getId());
+
+        Long userId = selfClient.getId();
+
+        Assertions.assertDoesNotThrow(() -> {
+            service.validateSelfOrAdmin(userId);
+        });
+        Mockito.verify(userService, Mockito.never()).authenticated();
+    }
+
+    @Test
+    public void validateSelfOrAdminThrowsForbiddenExceptionWhenJwtHasOtherUserId() {
+
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(selfClient.getId());
+
+        Long userId = otherClient.getId();
+
+        Assertions.assertThrows(ForbiddenException.class, () -> {
+            service.validateSelfOrAdmin(userId);
+        });
+    }
+
 }
@@ -18,6 +18,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -73,6 +74,8 @@ public class OrderServiceTests {
 
         Mockito.when(repository.findById(existingOrderId)).thenReturn(Optional.of(order));
         Mockito.when(repository.findById(nonExistingOrderId)).thenReturn(Optional.empty());
+        Mockito.when(repository.findClientIdById(existingOrderId)).thenReturn(Optional.of(client.getId()));
+        Mockito.when(repository.findClientIdById(nonExistingOrderId)).thenReturn(Optional.empty());
 
         Mockito.when(productRepository.getReferenceById(existingProductId)).thenReturn(product);
         Mockito.when(productRepository.getReferenceById(nonExistingProductId)).thenThrow(EntityNotFoundException.class);
@@ -140,6 +143,20 @@ public class OrderServiceTests {
 
     }
 
+    @Test
+    public void insertShouldStoreProductNameAndImageSnapshotOnItems() {
+
+        Mockito.when(userService.authenticated()).thenReturn(admin);
+        ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
+
+        service.insert(orderDTO);
+
+        Mockito.verify(repository).save(captor.capture());
+        OrderItem item = captor.getValue().getItems().iterator().next();
+        Assertions.assertEquals(product.getName(), item.getProductName());
+        Assertions.assertEquals(product.getImgUrl(), item.getImgUrl());
+    }
+
     @Test
     public void insertShouldThrownsUsernameNotFoundExceptionWhenUserNotLogged() {
 
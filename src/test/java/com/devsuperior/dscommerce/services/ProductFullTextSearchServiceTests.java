@@ -0,0 +1,282 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.projections.ProductChangesProjection;
+import com.devsuperior.dscommerce.projections.ProductTextProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
+import org.apache.lucene.index.IndexWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(SpringExtension.class)
+public class ProductFullTextSearchServiceTests {
+
+    @TempDir
+    Path indexDir;
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductFullTextSearchService service;
+
+    private Map<Long, ProductTextProjection> rows;
+
+    //cada linha criada pelo teste e gravada um segundo depois da anterior
+    private Instant clock;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        clock = Instant.parse("2024-01-01T00:00:00Z");
+        rows = new HashMap<>();
+        rows.put(1L, row(1L, "Macbook Pro", "Notebook leve com tela retina"));
+        rows.put(2L, row(2L, "Smart TV", "Televisão 4K com controle por voz"));
+        rows.put(3L, row(3L, "PC Gamer", "Computador com monitor e placa de vídeo para jogos"));
+        rows.put(4L, row(4L, "Monitor Gamer", "Tela de 27 polegadas"));
+
+        Mockito.when(repository.streamAllText()).thenAnswer(invocation -> rows.values().stream());
+        Mockito.when(repository.streamTextChangedSince(any())).thenAnswer(invocation -> rows.values().stream()
+                .filter(row -> !row.getUpdatedAt().isBefore(invocation.getArgument(0))));
+        Mockito.when(repository.summarizeChanges()).thenAnswer(invocation -> changes());
+        Mockito.when(repository.count()).thenAnswer(invocation -> (long) rows.size());
+        Mockito.when(repository.findAllIds()).thenAnswer(invocation -> new ArrayList<>(rows.keySet()));
+        Mockito.when(repository.findTextById(any())).thenAnswer(invocation -> Optional.ofNullable(rows.get((Long) invocation.getArgument(0))));
+        Mockito.when(repository.searchMinByIds(any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(rows::containsKey).map(id -> new ProductMinDTO(id, rows.get(id).getName(), 100.0, null)).toList();
+        });
+
+        service = newService();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.close();
+    }
+
+    @Test
+    public void searchShouldRankNameMatchesAboveDescriptionMatches() {
+
+        Page<ProductMinDTO> result = service.search("monitor", PageRequest.of(0, 12));
+
+        Assertions.assertEquals(List.of(4L, 3L), ids(result));
+        Assertions.assertEquals(2, result.getTotalElements());
+
+        result = service.search("Televisao", PageRequest.of(0, 12));
+
+        Assertions.assertEquals(List.of(2L), ids(result));
+    }
+
+    @Test
+    public void searchShouldLoadOnlyRequestedPage() {
+
+        Page<ProductMinDTO> result = service.search("gamer", PageRequest.of(1, 1));
+
+        Assertions.assertEquals(1, result.getContent().size());
+        Assertions.assertEquals(2, result.getTotalElements());
+        Mockito.verify(repository).searchMinByIds(List.of(result.getContent().get(0).getId()));
+    }
+
+    @Test
+    public void searchShouldReturnEmptyPageWithoutQueryingWhenTextIsBlank() {
+
+        Page<ProductMinDTO> result = service.search("  ", PageRequest.of(0, 12));
+
+        Assertions.assertTrue(result.isEmpty());
+        Mockito.verify(repository, Mockito.never()).searchMinByIds(any());
+    }
+
+    @Test
+    public void onProductChangedShouldUpdateIndexInBackground() throws Exception {
+
+        rows.put(5L, row(5L, "Câmera Digital", "Fotografia profissional"));
+        rows.remove(1L);
+        service.onProductChanged(ProductChangedEvent.saved(5L, "Câmera Digital"));
+        service.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        awaitIds("fotografia", List.of(5L));
+        awaitIds("macbook", List.of());
+    }
+
+    @Test
+    public void rebuildShouldApplyChangesMadeByOtherInstances() throws Exception {
+
+        //gravacoes de outra instancia nao geram eventos nesta
+        rows.put(5L, row(5L, "Câmera Digital", "Fotografia profissional"));
+        rows.put(3L, row(3L, "PC Gamer", "Computador para escritório"));
+        rows.remove(1L);
+        service.rebuild();
+
+        awaitIds("fotografia", List.of(5L));
+        Assertions.assertEquals(List.of(4L), ids(service.search("monitor", PageRequest.of(0, 12))));
+        Assertions.assertEquals(List.of(), ids(service.search("macbook", PageRequest.of(0, 12))));
+    }
+
+    @Test
+    public void rebuildShouldReadOnlyProductsChangedSinceLastReconcile() throws Exception {
+
+        rows.put(3L, row(3L, "PC Gamer", "Computador para escritório"));
+        Mockito.clearInvocations(repository);
+        service.rebuild();
+
+        awaitIds("escritorio", List.of(3L));
+        Mockito.verify(repository).streamTextChangedSince(any());
+        Mockito.verify(repository, Mockito.never()).streamAllText();
+        //nada foi removido: as contagens batem e os ids nao sao lidos
+        Mockito.verify(repository, Mockito.never()).findAllIds();
+    }
+
+    @Test
+    public void rebuildShouldRemoveProductsDeletedByOtherInstances() throws Exception {
+
+        //uma remocao nao deixa linha gravada para a reconciliacao encontrar
+        rows.remove(1L);
+        service.rebuild();
+
+        //o banco ja nao devolve o produto removido; o total da pagina vem do indice
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.search("macbook", PageRequest.of(0, 12)).getTotalElements() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(0, service.search("macbook", PageRequest.of(0, 12)).getTotalElements());
+        Assertions.assertEquals(List.of(4L, 3L), ids(service.search("monitor", PageRequest.of(0, 12))));
+    }
+
+    //a abertura so consulta a quantidade e a ultima gravacao; as linhas sao lidas apenas para reconstruir
+    @Test
+    public void openShouldReuseIndexWhenItWasClosedCleanly() throws Exception {
+
+        service.close();
+        Mockito.clearInvocations(repository);
+        service = newService();
+
+        Mockito.verify(repository, Mockito.never()).streamAllText();
+        Assertions.assertEquals(List.of(3L), ids(service.search("jogos", PageRequest.of(0, 12))));
+    }
+
+    @Test
+    public void openShouldRebuildIndexWhenProductsChangedWhileStopped() throws Exception {
+
+        service.close();
+        rows.put(5L, row(5L, "Câmera Digital", "Fotografia profissional"));
+        Mockito.clearInvocations(repository);
+        service = newService();
+
+        Mockito.verify(repository, Mockito.times(1)).streamAllText();
+        Assertions.assertEquals(List.of(5L), ids(service.search("fotografia", PageRequest.of(0, 12))));
+    }
+
+    @Test
+    public void openShouldRebuildIndexWhenProductEditedWhileStopped() throws Exception {
+
+        //mesma quantidade e mesmos ids: so a ultima gravacao denuncia a mudanca
+        service.close();
+        rows.put(3L, row(3L, "PC Gamer", "Computador para escritório"));
+        Mockito.clearInvocations(repository);
+        service = newService();
+
+        Mockito.verify(repository, Mockito.times(1)).streamAllText();
+        Assertions.assertEquals(List.of(3L), ids(service.search("escritorio", PageRequest.of(0, 12))));
+        Assertions.assertEquals(List.of(), ids(service.search("jogos", PageRequest.of(0, 12))));
+    }
+
+    @Test
+    public void openShouldRebuildIndexWhenItWasNotClosedCleanly() throws Exception {
+
+        //simula uma queda: descarta o writer sem o fechamento limpo
+        IndexWriter writer = (IndexWriter) ReflectionTestUtils.getField(service, "writer");
+        writer.rollback();
+        Mockito.clearInvocations(repository);
+        service = newService();
+
+        Mockito.verify(repository, Mockito.times(1)).streamAllText();
+        Assertions.assertEquals(List.of(3L), ids(service.search("jogos", PageRequest.of(0, 12))));
+    }
+
+    private ProductFullTextSearchService newService() throws Exception {
+        ProductFullTextSearchService result = new ProductFullTextSearchService();
+        ReflectionTestUtils.setField(result, "repository", repository);
+        ReflectionTestUtils.setField(result, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(result, "indexDir", indexDir.toString());
+        result.open();
+        return result;
+    }
+
+    private void awaitIds(String text, List<Long> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!expected.equals(ids(service.search(text, PageRequest.of(0, 12)))) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(expected, ids(service.search(text, PageRequest.of(0, 12))));
+    }
+
+    private List<Long> ids(Page<ProductMinDTO> page) {
+        return page.getContent().stream().map(ProductMinDTO::getId).toList();
+    }
+
+    private ProductChangesProjection changes() {
+        return new ProductChangesProjection() {
+            @Override
+            public Long getTotal() {
+                return (long) rows.size();
+            }
+
+            @Override
+            public Instant getLastUpdate() {
+                return rows.values().stream().map(ProductTextProjection::getUpdatedAt).max(Comparator.naturalOrder()).orElse(null);
+            }
+        };
+    }
+
+    private ProductTextProjection row(Long id, String name, String description) {
+        clock = clock.plusSeconds(1);
+        Instant updatedAt = clock;
+        return new ProductTextProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public Instant getUpdatedAt() {
+                return updatedAt;
+            }
+        };
+    }
+}
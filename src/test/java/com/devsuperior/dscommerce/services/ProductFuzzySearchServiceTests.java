@@ -0,0 +1,145 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.projections.ProductNameProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(SpringExtension.class)
+public class ProductFuzzySearchServiceTests {
+
+    @InjectMocks
+    private ProductFuzzySearchService service;
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private Map<Long, ProductMinDTO> products;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        ReflectionTestUtils.setField(service, "similarityThreshold", 0.3);
+
+        products = new HashMap<>();
+        products.put(1L, new ProductMinDTO(1L, "Macbook Pro", 1250.0, null));
+        products.put(2L, new ProductMinDTO(2L, "Smart TV", 2190.0, null));
+        products.put(3L, new ProductMinDTO(3L, "PC Gamer", 1200.0, null));
+        products.put(4L, new ProductMinDTO(4L, "PC Gamer X", 1350.0, null));
+        products.put(5L, new ProductMinDTO(5L, "Câmera Digital", 800.0, null));
+
+        Mockito.when(repository.findAllNames()).thenReturn(products.values().stream()
+                .filter(x -> x.getId() != 5L)
+                .map(x -> row(x.getId(), x.getName()))
+                .toList());
+        Mockito.when(repository.searchMinByIds(any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(products::get).toList();
+        });
+
+        service.rebuild();
+    }
+
+    @Test
+    public void searchShouldFindProductWhenNameHasTypo() {
+
+        Page<ProductMinDTO> result = service.search("macbok", PageRequest.of(0, 12));
+
+        Assertions.assertEquals(List.of(1L), ids(result));
+    }
+
+    @Test
+    public void searchShouldRankProductsBySimilarity() {
+
+        Page<ProductMinDTO> result = service.search("PC Gamer", PageRequest.of(0, 12));
+
+        Assertions.assertEquals(List.of(3L, 4L), ids(result));
+        Assertions.assertEquals(2, result.getTotalElements());
+    }
+
+    @Test
+    public void searchShouldLoadOnlyRequestedPage() {
+
+        Page<ProductMinDTO> result = service.search("pc gamer", PageRequest.of(1, 1));
+
+        Assertions.assertEquals(List.of(4L), ids(result));
+        Assertions.assertEquals(2, result.getTotalElements());
+        Mockito.verify(repository).searchMinByIds(List.of(4L));
+    }
+
+    @Test
+    public void searchShouldCountMatchesBeyondRequestedPage() {
+
+        Page<ProductMinDTO> first = service.search("pc gamer", PageRequest.of(0, 1));
+        Page<ProductMinDTO> again = service.search("pc gamer", PageRequest.of(0, 1));
+
+        Assertions.assertEquals(List.of(3L), ids(first));
+        Assertions.assertEquals(2, first.getTotalElements());
+        Assertions.assertEquals(ids(first), ids(again));
+        Assertions.assertEquals(2, again.getTotalElements());
+    }
+
+    @Test
+    public void searchShouldReturnEmptyPageWithoutQueryingWhenNameIsBlank() {
+
+        Page<ProductMinDTO> result = service.search("  ", PageRequest.of(0, 12));
+
+        Assertions.assertTrue(result.isEmpty());
+        Mockito.verify(repository, Mockito.never()).searchMinByIds(any());
+    }
+
+    @Test
+    public void searchShouldReflectSavedAndDeletedProducts() {
+
+        service.onProductChanged(ProductChangedEvent.saved(5L, "Câmera Digital"));
+        service.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        Assertions.assertEquals(List.of(5L), ids(service.search("camera digitl", PageRequest.of(0, 12))));
+        Assertions.assertTrue(service.search("macbok", PageRequest.of(0, 12)).isEmpty());
+    }
+
+    private List<Long> ids(Page<ProductMinDTO> page) {
+        return page.getContent().stream().map(ProductMinDTO::getId).toList();
+    }
+
+    @Test
+    public void rebuildShouldReadInReadWriteTransaction() {
+
+        Mockito.verify(transactionManager).getTransaction(Mockito.argThat(x -> !x.isReadOnly()));
+    }
+
+    private ProductNameProjection row(Long id, String name) {
+        return new ProductNameProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,195 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductImportResultDTO;
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.tests.CategoryFactory;
+import com.devsuperior.dscommerce.tests.ProductFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(SpringExtension.class)
+public class ProductImportServiceTests {
+
+    @InjectMocks
+    private ProductImportService service;
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private Category category;
+    private Product product;
+    private String validLine, invalidLine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+
+        category = CategoryFactory.createCategory();
+        product = ProductFactory.createProducts();
+
+        validLine = "{\"name\":\"Console Playstation\",\"description\":\"consectetur adipiscing elit\",\"price\":3999.0,\"categories\":[{\"id\":" + category.getId() + "}]}";
+        invalidLine = "{\"name\":\"PS\",\"description\":\"consectetur adipiscing elit\",\"price\":-1.0,\"categories\":[{\"id\":" + category.getId() + "}]}";
+
+        Mockito.when(categoryRepository.findAll()).thenReturn(List.of(category));
+        Mockito.when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void importProductsShouldSaveValidRecordsInChunkedTransactions() throws Exception {
+
+        ProductImportResultDTO result = service.importProducts(
+                ndjson(validLine, validLine, validLine), ProductImportService.Format.NDJSON, false);
+
+        Assertions.assertEquals(3, result.getProcessed());
+        Assertions.assertEquals(3, result.getInserted());
+        Assertions.assertEquals(0, result.getFailed());
+        Mockito.verify(repository, Mockito.times(3)).save(any());
+        Mockito.verify(transactionManager, Mockito.times(2)).commit(any());
+        Mockito.verify(entityManager, Mockito.times(2)).clear();
+    }
+
+    @Test
+    public void importProductsShouldReportInvalidLinesWithoutSavingThem() throws Exception {
+
+        ProductImportResultDTO result = service.importProducts(
+                ndjson(invalidLine, "not json", validLine), ProductImportService.Format.NDJSON, false);
+
+        Assertions.assertEquals(3, result.getProcessed());
+        Assertions.assertEquals(1, result.getInserted());
+        Assertions.assertEquals(2, result.getFailed());
+        Assertions.assertEquals(1L, result.getErrors().get(0).getLine());
+        Assertions.assertEquals(2L, result.getErrors().get(1).getLine());
+        Mockito.verify(repository, Mockito.times(1)).save(any());
+    }
+
+    @Test
+    public void importProductsShouldReportUnknownCategory() throws Exception {
+
+        String line = validLine.replace("{\"id\":" + category.getId() + "}", "{\"id\":999}");
+
+        ProductImportResultDTO result = service.importProducts(ndjson(line), ProductImportService.Format.NDJSON, false);
+
+        Assertions.assertEquals(1, result.getFailed());
+        Mockito.verify(repository, Mockito.never()).save(any());
+    }
+
+    @Test
+    public void importProductsShouldUpdateExistingProductWhenUpsert() throws Exception {
+
+        Mockito.when(repository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
+        String line = "{\"id\":" + product.getId() + "," + validLine.substring(1).replace("Console Playstation", "Console Playstation 5");
+
+        ProductImportResultDTO result = service.importProducts(ndjson(line), ProductImportService.Format.NDJSON, true);
+
+        Assertions.assertEquals(1, result.getUpdated());
+        Assertions.assertEquals(0, result.getInserted());
+        Assertions.assertEquals("Console Playstation 5", product.getName());
+    }
+
+    @Test
+    public void importProductsShouldRejectUnknownIdWhenUpsert() throws Exception {
+
+        Mockito.when(repository.findAllById(List.of(999L))).thenReturn(List.of());
+        String line = "{\"id\":999," + validLine.substring(1);
+
+        ProductImportResultDTO result = service.importProducts(ndjson(line, validLine), ProductImportService.Format.NDJSON, true);
+
+        Assertions.assertEquals(1, result.getInserted());
+        Assertions.assertEquals(1, result.getFailed());
+        Assertions.assertEquals(1L, result.getErrors().get(0).getLine());
+        Assertions.assertEquals("id: Produto inexistente 999", result.getErrors().get(0).getMessage());
+        Mockito.verify(repository, Mockito.times(1)).save(any());
+    }
+
+    @Test
+    public void importProductsShouldRejectIdWhenNotUpsert() throws Exception {
+
+        String line = "{\"id\":" + product.getId() + "," + validLine.substring(1);
+
+        ProductImportResultDTO result = service.importProducts(ndjson(line), ProductImportService.Format.NDJSON, false);
+
+        Assertions.assertEquals(1, result.getFailed());
+        Mockito.verify(repository, Mockito.never()).findAllById(any());
+        Mockito.verify(repository, Mockito.never()).save(any());
+    }
+
+    @Test
+    public void importProductsShouldRetryFailedChunkRecordByRecordAndReportCause() throws Exception {
+
+        String failingLine = validLine.replace("Console Playstation", "Console Quebrado");
+        Mockito.when(repository.save(Mockito.argThat(x -> x != null && "Console Quebrado".equals(x.getName()))))
+                .thenThrow(new DataIntegrityViolationException("falha", new SQLException("valor duplicado")));
+
+        ProductImportResultDTO result = service.importProducts(
+                ndjson(validLine, failingLine), ProductImportService.Format.NDJSON, false);
+
+        Assertions.assertEquals(1, result.getInserted());
+        Assertions.assertEquals(1, result.getFailed());
+        Assertions.assertEquals(2L, result.getErrors().get(0).getLine());
+        Assertions.assertEquals("Falha ao gravar: valor duplicado", result.getErrors().get(0).getMessage());
+        //o lote e os dois registros, cada um na sua transacao
+        Mockito.verify(transactionManager, Mockito.times(3)).getTransaction(any());
+        Mockito.verify(transactionManager, Mockito.times(1)).commit(any());
+    }
+
+    @Test
+    public void importProductsShouldReadCsvWithQuotedFields() throws Exception {
+
+        String csv = "name,description,price,categories\n"
+                + "\"Monitor 27\"\", 4K\",\"consectetur, adipiscing elit\",1999.9," + category.getId() + "\n";
+
+        ProductImportResultDTO result = service.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.CSV, false);
+
+        Assertions.assertEquals(1, result.getInserted());
+        Mockito.verify(repository).save(Mockito.argThat(x -> x.getName().equals("Monitor 27\", 4K")));
+    }
+
+    private InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,129 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductPriceDTO;
+import com.devsuperior.dscommerce.dto.ProductPriceUpdateDTO;
+import com.devsuperior.dscommerce.dto.ProductPriceUpdateResultDTO;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(SpringExtension.class)
+public class ProductPriceServiceTests {
+
+    @InjectMocks
+    private ProductPriceService service;
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private Long existingCategoryId, nonExistingCategoryId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(service, "chunkSize", 10);
+
+        existingCategoryId = 3L;
+        nonExistingCategoryId = 1000L;
+
+        Mockito.when(entityManagerFactory.getCache()).thenReturn(cache);
+        Mockito.when(categoryRepository.existsById(existingCategoryId)).thenReturn(true);
+        Mockito.when(categoryRepository.existsById(nonExistingCategoryId)).thenReturn(false);
+        Mockito.when(repository.applyPriceFactorByCategory(eq(existingCategoryId), anyDouble(), anyLong(), anyLong())).thenReturn(4);
+    }
+
+    @Test
+    public void updatePricesShouldApplyCategoryRuleInChunksOfRealIdsAndEvictCacheOnce() {
+        ReflectionTestUtils.setField(service, "chunkSize", 4);
+        Mockito.when(repository.findIdsByCategoryAfter(existingCategoryId, 0L, 4)).thenReturn(List.of(2L, 5L, 7L, 11L));
+        Mockito.when(repository.findIdsByCategoryAfter(existingCategoryId, 11L, 4)).thenReturn(List.of(400L, 900L, 1500L, 20000L));
+        Mockito.when(repository.findIdsByCategoryAfter(existingCategoryId, 20000L, 4)).thenReturn(List.of());
+
+        ProductPriceUpdateResultDTO result = service.updatePrices(new ProductPriceUpdateDTO(null, existingCategoryId, 5.0));
+
+        Assertions.assertEquals(8L, result.getUpdated());
+        Mockito.verify(repository).applyPriceFactorByCategory(existingCategoryId, 1.05, 2L, 11L);
+        Mockito.verify(repository).applyPriceFactorByCategory(existingCategoryId, 1.05, 400L, 20000L);
+        Mockito.verify(repository, Mockito.times(2)).applyPriceFactorByCategory(eq(existingCategoryId), anyDouble(), anyLong(), anyLong());
+        Mockito.verify(transactionManager, Mockito.times(3)).commit(any());
+        Mockito.verify(cache, Mockito.times(1)).evict(Product.class);
+    }
+
+    @Test
+    public void updatePricesShouldKeepAppliedChunksAndEvictCacheWhenChunkFails() {
+        ReflectionTestUtils.setField(service, "chunkSize", 4);
+        Mockito.when(repository.findIdsByCategoryAfter(existingCategoryId, 0L, 4)).thenReturn(List.of(2L, 5L, 7L, 11L));
+        Mockito.when(repository.findIdsByCategoryAfter(existingCategoryId, 11L, 4)).thenThrow(new QueryTimeoutException("timeout"));
+
+        Assertions.assertThrows(QueryTimeoutException.class, () -> {
+            service.updatePrices(new ProductPriceUpdateDTO(null, existingCategoryId, 5.0));
+        });
+        Mockito.verify(transactionManager, Mockito.times(1)).commit(any());
+        Mockito.verify(transactionManager, Mockito.times(1)).rollback(any());
+        Mockito.verify(cache, Mockito.times(1)).evict(Product.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void updatePricesShouldBatchGivenPricesAndReportUnknownIds() {
+
+        Mockito.when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][] {{1, 0}});
+        List<ProductPriceDTO> prices = List.of(new ProductPriceDTO(1L, 10.0), new ProductPriceDTO(1000L, 20.0));
+
+        ProductPriceUpdateResultDTO result = service.updatePrices(new ProductPriceUpdateDTO(prices, null, null));
+
+        Assertions.assertEquals(1L, result.getUpdated());
+        Assertions.assertEquals(List.of(1000L), result.getNotFound());
+        Mockito.verify(cache, Mockito.times(1)).evict(Product.class);
+    }
+
+    @Test
+    public void updatePricesShouldThrowResourceNotFoundExceptionWhenCategoryDoesNotExist() {
+
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            service.updatePrices(new ProductPriceUpdateDTO(null, nonExistingCategoryId, 5.0));
+        });
+        Mockito.verify(repository, Mockito.never()).applyPriceFactorByCategory(any(), anyDouble(), any(), any());
+    }
+}
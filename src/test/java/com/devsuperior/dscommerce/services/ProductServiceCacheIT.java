@@ -0,0 +1,94 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductPriceUpdateDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+// sem @Transactional: cada chamada precisa de um contexto de persistencia novo para chegar ao cache de segundo nivel
+@SpringBootTest
+public class ProductServiceCacheIT {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductPriceService productPriceService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long existingId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        existingId = 1L;
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void findByIdShouldReadProductAndCategoriesFromCacheWhenCalledAgain() {
+
+        productService.findById(existingId);
+        long statementsAfterFirstCall = statistics.getPrepareStatementCount();
+
+        ProductDTO result = productService.findById(existingId);
+
+        Assertions.assertEquals(statementsAfterFirstCall, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(1, statistics.getCacheRegionStatistics("product").getHitCount());
+        Assertions.assertEquals(1, statistics.getCacheRegionStatistics("product-categories").getHitCount());
+        Assertions.assertEquals("The Lord of the Rings", result.getName());
+        Assertions.assertEquals("Livros", result.getCategories().get(0).getName());
+    }
+
+    @Test
+    public void categoryFindAllShouldUseQueryCacheWhenCalledAgain() {
+
+        categoryService.findAll();
+        long statementsAfterFirstCall = statistics.getPrepareStatementCount();
+        long queryCacheHitsAfterFirstCall = statistics.getQueryCacheHitCount();
+
+        List<CategoryDTO> result = categoryService.findAll();
+
+        Assertions.assertEquals(statementsAfterFirstCall, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(queryCacheHitsAfterFirstCall + 1, statistics.getQueryCacheHitCount());
+        Assertions.assertEquals(3, result.size());
+    }
+
+    @Test
+    public void categoryPriceRuleShouldKeepCategoryCachesAndEvictProducts() {
+
+        categoryService.findAll();
+        productService.findById(existingId);
+        long queryCacheHitsBefore = statistics.getQueryCacheHitCount();
+        long productMissesBefore = statistics.getCacheRegionStatistics("product").getMissCount();
+
+        //reajuste de 0%: passa pelo mesmo UPDATE sem mudar os precos dos outros testes
+        productPriceService.updatePrices(new ProductPriceUpdateDTO(null, 1L, 0.0));
+
+        categoryService.findAll();
+        productService.findById(existingId);
+
+        Assertions.assertEquals(queryCacheHitsBefore + 1, statistics.getQueryCacheHitCount());
+        Assertions.assertEquals(1, statistics.getCacheRegionStatistics("product-categories").getHitCount());
+        Assertions.assertEquals(productMissesBefore + 1, statistics.getCacheRegionStatistics("product").getMissCount());
+    }
+}
@@ -1,9 +1,13 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.dto.CategoryDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.ProductPatchDTO;
+import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
 import com.devsuperior.dscommerce.services.exceptions.DatabaseException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
 import com.devsuperior.dscommerce.tests.ProductFactory;
@@ -15,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -36,11 +41,14 @@ public class ProductServiceTests {
     @Mock
     private ProductRepository repository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private long existingProductId, nonExistingProductId, dependentProductId;
     private String productName;
     private Product product;
     private ProductDTO productDTO;
-    private PageImpl<Product> page;
+    private PageImpl<ProductMinDTO> page;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -52,7 +60,7 @@ public class ProductServiceTests {
         productName = "Playstation 5";
 
         product = ProductFactory.createProducts(productName);
-        page = new PageImpl<>(List.of(product));
+        page = new PageImpl<>(List.of(new ProductMinDTO(product)));
         productDTO = new ProductDTO(product);
 
         Mockito.when(repository.findById(existingProductId)).thenReturn(Optional.of(product));
@@ -102,6 +110,16 @@ public class ProductServiceTests {
 
     }
 
+    @Test
+    public void findAllShouldSearchByNormalizedNamePrefixWithWildcardsEscaped() {
+
+        Pageable pageable = PageRequest.of(0, 12);
+
+        service.findAll("  Eletrônicos 100%_", pageable);
+
+        Mockito.verify(repository).searchByName("eletronicos 100!%!_%", pageable);
+    }
+
     @Test
     public void InsertShouldReturnProductDTO() {
 
@@ -132,6 +150,60 @@ public class ProductServiceTests {
 
     }
 
+    @Test
+    public void patchShouldChangeOnlyGivenFields() {
+
+        String name = product.getName();
+        ProductPatchDTO patch = new ProductPatchDTO(null, null, 10.0, null, null);
+
+        ProductDTO result = service.patch(existingProductId, patch);
+
+        Assertions.assertEquals(10.0, result.getPrice());
+        Assertions.assertEquals(name, result.getName());
+        Assertions.assertEquals(1, result.getCategories().size());
+    }
+
+    @Test
+    public void patchShouldPublishProductChangedEventWhenDescriptionChanges() {
+
+        ProductPatchDTO patch = new ProductPatchDTO(null, "Nova descrição", null, null, null);
+
+        service.patch(existingProductId, patch);
+
+        Mockito.verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    public void patchShouldNotPublishProductChangedEventWhenTextIsUnchanged() {
+
+        ProductPatchDTO patch = new ProductPatchDTO(null, null, 10.0, null, null);
+
+        service.patch(existingProductId, patch);
+
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    public void patchShouldKeepExistingCategoryAndAddOnlyNewOnes() {
+
+        Category existing = product.getCategories().iterator().next();
+        ProductPatchDTO patch = new ProductPatchDTO(null, null, null, null,
+                List.of(new CategoryDTO(existing.getId(), null), new CategoryDTO(99L, null)));
+
+        service.patch(existingProductId, patch);
+
+        Assertions.assertEquals(2, product.getCategories().size());
+        Assertions.assertTrue(product.getCategories().stream().anyMatch(x -> x == existing));
+    }
+
+    @Test
+    public void patchShouldThrowResourceNotFoundExceptionWhenIdDoesNotExist() {
+
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            service.patch(nonExistingProductId, new ProductPatchDTO());
+        });
+    }
+
     @Test
     public void deleteShouldDoNothingWhenIdExists() {
 
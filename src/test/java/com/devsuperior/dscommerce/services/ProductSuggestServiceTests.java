@@ -0,0 +1,139 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ProductSuggestionDTO;
+import com.devsuperior.dscommerce.projections.ProductPopularityProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.events.ProductChangedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+public class ProductSuggestServiceTests {
+
+    @InjectMocks
+    private ProductSuggestService service;
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        ReflectionTestUtils.setField(service, "maxResults", 3);
+
+        Mockito.when(repository.findAllWithPopularity()).thenReturn(List.of(
+                row(1L, "Câmera Digital", 5L),
+                row(2L, "Camiseta Básica", 20L),
+                row(3L, "Cama Box", 0L),
+                row(4L, "Camisa Polo", 1L),
+                row(5L, "Macbook Pro", 8L)));
+
+        service.rebuild();
+    }
+
+    @Test
+    public void suggestShouldReturnTopProductsByPopularityIgnoringAccentsAndCase() {
+
+        List<ProductSuggestionDTO> result = service.suggest("  CÂM ");
+
+        Assertions.assertEquals(List.of(2L, 1L, 4L), ids(result));
+        Assertions.assertEquals("Camiseta Básica", result.get(0).getName());
+    }
+
+    @Test
+    public void suggestShouldMatchWordsInsideProductName() {
+
+        List<ProductSuggestionDTO> result = service.suggest("pro");
+
+        Assertions.assertEquals(List.of(5L), ids(result));
+    }
+
+    @Test
+    public void suggestShouldReturnEmptyListWhenQueryIsBlankOrHasNoMatch() {
+
+        Assertions.assertTrue(service.suggest("   ").isEmpty());
+        Assertions.assertTrue(service.suggest("camx").isEmpty());
+    }
+
+    @Test
+    public void suggestShouldReflectRenamedProductKeepingItsPopularity() {
+
+        service.onProductChanged(ProductChangedEvent.saved(2L, "Notebook Gamer"));
+
+        Assertions.assertEquals(List.of(1L, 4L, 3L), ids(service.suggest("cam")));
+        Assertions.assertEquals(List.of(2L), ids(service.suggest("gamer")));
+        Assertions.assertEquals(List.of(2L), ids(service.suggest("note")));
+    }
+
+    @Test
+    public void suggestShouldNotReturnDeletedProducts() {
+
+        service.onProductChanged(ProductChangedEvent.deleted(2L));
+        service.onProductChanged(ProductChangedEvent.deleted(4L));
+
+        Assertions.assertEquals(List.of(1L, 3L), ids(service.suggest("cam")));
+        Assertions.assertTrue(service.suggest("camis").isEmpty());
+        Assertions.assertEquals(List.of(3L), ids(service.suggest("cama box")));
+    }
+
+    @Test
+    public void suggestShouldReturnNewProduct() {
+
+        service.onProductChanged(ProductChangedEvent.saved(6L, "Camisola"));
+
+        Assertions.assertEquals(List.of(2L, 4L, 6L), ids(service.suggest("camis")));
+        Assertions.assertEquals(List.of(6L), ids(service.suggest("camiso")));
+    }
+
+    @Test
+    public void suggestShouldFillMaxResultsWhenProductHasSeveralKeysUnderPrefix() {
+
+        //"cam cam cam", "cam cam" e "cam" ficam em ramos diferentes abaixo de "cam"
+        service.onProductChanged(ProductChangedEvent.saved(2L, "Cam Cam Cam"));
+
+        Assertions.assertEquals(List.of(2L, 1L, 4L), ids(service.suggest("cam")));
+        Assertions.assertEquals(List.of(2L), ids(service.suggest("cam cam")));
+    }
+
+    @Test
+    public void rebuildShouldReadInReadWriteTransaction() {
+
+        Mockito.verify(transactionManager).getTransaction(Mockito.argThat(x -> !x.isReadOnly()));
+    }
+
+    private List<Long> ids(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getId).toList();
+    }
+
+    private ProductPopularityProjection row(Long id, String name, Long popularity) {
+        return new ProductPopularityProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getPopularity() {
+                return popularity;
+            }
+        };
+    }
+}
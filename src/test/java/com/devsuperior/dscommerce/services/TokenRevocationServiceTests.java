@@ -0,0 +1,247 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.config.BoundedOAuth2AuthorizationService;
+import com.devsuperior.dscommerce.entities.RevokedToken;
+import com.devsuperior.dscommerce.repositories.RevokedTokenRepository;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(SpringExtension.class)
+public class TokenRevocationServiceTests {
+
+    @InjectMocks
+    private TokenRevocationService service;
+
+    @Mock
+    private RevokedTokenRepository repository;
+
+    @Mock
+    private CustomUserUtil customUserUtil;
+
+    @Mock
+    private BoundedOAuth2AuthorizationService authorizationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private String revokedTokenId, validTokenId, username;
+    private Instant loginTime;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        revokedTokenId = "revoked-jti";
+        validTokenId = "valid-jti";
+        username = "maria@gmail.com";
+        loginTime = Instant.parse("2022-07-25T13:00:00Z");
+
+        ReflectionTestUtils.setField(service, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(service, "refreshDurationSeconds", 604800);
+        ReflectionTestUtils.setField(service, "lockoutDurationSeconds", 900);
+
+        Mockito.when(repository.findActiveIds(any())).thenReturn(new ArrayList<>(List.of(revokedTokenId)));
+        Mockito.when(repository.existsById(revokedTokenId)).thenReturn(true);
+        Mockito.when(repository.findById(any())).thenReturn(Optional.empty());
+
+        service.rebuild();
+    }
+
+    @Test
+    public void isRevokedShouldReturnTrueWhenTokenIdRevoked() {
+
+        Assertions.assertTrue(service.isRevoked(createJwt(revokedTokenId)));
+    }
+
+    @Test
+    public void isRevokedShouldReturnFalseWithoutQueryWhenTokenIdNotRevoked() {
+
+        Assertions.assertFalse(service.isRevoked(createJwt(validTokenId)));
+        Mockito.verify(repository, Mockito.never()).existsById(validTokenId);
+        Mockito.verify(repository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    public void revokeShouldSaveTokenAndRevokeIt() {
+
+        Mockito.when(repository.existsById(validTokenId)).thenReturn(true);
+
+        service.revoke(validTokenId, loginTime.plusSeconds(86400));
+
+        Mockito.verify(repository).save(any());
+        Assertions.assertTrue(service.isRevoked(createJwt(validTokenId)));
+    }
+
+    @Test
+    public void isRevokedShouldReturnTrueWhenUserTokensRevokedAfterLogin() {
+
+        service.revokeUserTokens(username);
+        Mockito.when(repository.findById("user:" + username))
+                .thenReturn(Optional.of(new RevokedToken("user:" + username, loginTime.plusSeconds(60), Instant.now().plusSeconds(60))));
+
+        Assertions.assertTrue(service.isRevoked(createJwt(validTokenId)));
+    }
+
+    @Test
+    public void isRevokedShouldReturnFalseWhenUserLoggedInAfterRevocation() {
+
+        service.revokeUserTokens(username);
+        Mockito.when(repository.findById("user:" + username))
+                .thenReturn(Optional.of(new RevokedToken("user:" + username, loginTime.minusSeconds(60), Instant.now().plusSeconds(60))));
+
+        Assertions.assertFalse(service.isRevoked(createJwt(validTokenId)));
+    }
+
+    @Test
+    public void revokeCurrentTokenShouldRevokeTokenAndRemoveSessionAuthorization() {
+
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .jti(validTokenId)
+                .issuedAt(loginTime)
+                .expiresAt(loginTime.plusSeconds(86400))
+                .claim("username", username)
+                .claim("auth_time", loginTime.getEpochSecond())
+                .build();
+        Mockito.when(customUserUtil.getLoggedUserJwt()).thenReturn(jwt);
+        Mockito.when(repository.existsById(validTokenId)).thenReturn(true);
+
+        service.revokeCurrentToken();
+
+        Assertions.assertTrue(service.isRevoked(createJwt(validTokenId)));
+        Mockito.verify(authorizationService).removeByUsernameAndAuthTime(username, loginTime);
+    }
+
+    @Test
+    public void revokeUserTokensShouldTruncateRevocationTimeToSeconds() {
+
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+
+        service.revokeUserTokens(username);
+
+        Mockito.verify(repository, Mockito.times(2)).save(saved.capture());
+        Assertions.assertEquals(0, saved.getAllValues().get(0).getRevokedAt().getNano());
+    }
+
+    @Test
+    public void revokeUserTokensShouldLockOutOnlyForLockoutDuration() {
+
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+
+        service.revokeUserTokens(username);
+
+        Mockito.verify(repository, Mockito.times(2)).save(saved.capture());
+        RevokedToken tokens = saved.getAllValues().get(0);
+        RevokedToken lockout = saved.getAllValues().get(1);
+        Assertions.assertEquals("user:" + username, tokens.getId());
+        Assertions.assertEquals(604800, tokens.getExpiresAt().getEpochSecond() - tokens.getRevokedAt().getEpochSecond());
+        Assertions.assertEquals("lockout:" + username, lockout.getId());
+        Assertions.assertEquals(900, lockout.getExpiresAt().getEpochSecond() - lockout.getRevokedAt().getEpochSecond());
+    }
+
+    @Test
+    public void revokeUserTokensShouldNotLockOutWhenLockoutDisabled() {
+
+        ReflectionTestUtils.setField(service, "lockoutDurationSeconds", 0);
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+
+        service.revokeUserTokens(username);
+
+        Mockito.verify(repository).save(saved.capture());
+        Assertions.assertEquals("user:" + username, saved.getValue().getId());
+        Assertions.assertFalse(service.isLockedOut(username));
+    }
+
+    @Test
+    public void isLockedOutShouldReturnTrueWhileLockoutIsActive() {
+
+        service.revokeUserTokens(username);
+        Mockito.when(repository.findById("lockout:" + username))
+                .thenReturn(Optional.of(new RevokedToken("lockout:" + username, loginTime, Instant.now().plusSeconds(60))));
+
+        Assertions.assertTrue(service.isLockedOut(username));
+    }
+
+    @Test
+    public void isLockedOutShouldReturnFalseWhenLockoutExpired() {
+
+        service.revokeUserTokens(username);
+        Mockito.when(repository.findById("lockout:" + username))
+                .thenReturn(Optional.of(new RevokedToken("lockout:" + username, loginTime, Instant.now().minusSeconds(60))));
+
+        Assertions.assertFalse(service.isLockedOut(username));
+    }
+
+    @Test
+    public void isLockedOutShouldIgnoreUserRevocationRecord() {
+
+        service.revokeUserTokens(username);
+        Mockito.when(repository.findById("user:" + username))
+                .thenReturn(Optional.of(new RevokedToken("user:" + username, loginTime, Instant.now().plusSeconds(60))));
+
+        Assertions.assertFalse(service.isLockedOut(username));
+    }
+
+    @Test
+    public void unlockUserShouldDeleteOnlyLockoutRecord() {
+
+        service.unlockUser(username);
+
+        Mockito.verify(repository).deleteById("lockout:" + username);
+        Mockito.verify(repository, Mockito.never()).deleteById("user:" + username);
+    }
+
+    @Test
+    public void isLockedOutShouldReturnFalseWithoutQueryWhenUserNeverRevoked() {
+
+        Assertions.assertFalse(service.isLockedOut(username));
+        Mockito.verify(repository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    public void revokeUserTokensShouldRemoveUserAuthorizations() {
+
+        service.revokeUserTokens(username);
+
+        Mockito.verify(authorizationService).removeByUsername(username);
+    }
+
+    @Test
+    public void isRevokedShouldQueryInsideReadWriteTransaction() {
+
+        service.isRevoked(createJwt(revokedTokenId));
+
+        //uma transacao somente leitura seria roteada para a replica
+        Mockito.verify(transactionManager, Mockito.atLeastOnce())
+                .getTransaction(Mockito.argThat((TransactionDefinition definition) -> !definition.isReadOnly()));
+    }
+
+    private Jwt createJwt(String tokenId) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .jti(tokenId)
+                .issuedAt(loginTime)
+                .claim("username", username)
+                .claim("auth_time", loginTime.getEpochSecond())
+                .build();
+    }
+}
@@ -14,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -31,6 +32,8 @@ public class UserServiceTests {
     private UserRepository repository;
     @Mock
     private CustomUserUtil userUtil;
+    @Mock
+    private UserCache userCache;
 
     private String existingUserName, nonExistingUsername;
     private User user;
@@ -60,6 +63,33 @@ public class UserServiceTests {
         Assertions.assertEquals(result.getUsername(), existingUserName);
     }
 
+    @Test
+    public void loadUserByUsernameShouldPutUserInCacheWhenUserExists() {
+
+        UserDetails result = service.loadUserByUsername(existingUserName);
+
+        Mockito.verify(userCache).putUserInCache(result);
+    }
+
+    @Test
+    public void loadUserByUsernameShouldReturnCachedUserWithoutQueryWhenUserIsCached() {
+
+        Mockito.when(userCache.getUserFromCache(existingUserName)).thenReturn(user);
+
+        UserDetails result = service.loadUserByUsername(existingUserName);
+
+        Assertions.assertSame(result, user);
+        Mockito.verify(repository, Mockito.never()).searchUserAndRolesByEmail(existingUserName);
+    }
+
+    @Test
+    public void evictCredentialsShouldRemoveUserFromCache() {
+
+        service.evictCredentials(existingUserName);
+
+        Mockito.verify(userCache).removeUserFromCache(existingUserName);
+    }
+
     @Test
     public void loadUserByUsernameShouldThrowUsernameNotFoundExceptionWhenUserDoesNotExists() {
 
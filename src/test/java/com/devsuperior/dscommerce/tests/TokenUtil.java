@@ -8,6 +8,8 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import java.util.Map;
+
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -23,23 +25,48 @@ public class TokenUtil {
     private String clientSecret;
 
     public String obtainAccessToken(MockMvc mockMvc, String username, String password) throws Exception {
+        return obtainTokens(mockMvc, username, password).get("access_token").toString();
+    }
+
+    public Map<String, Object> obtainTokens(MockMvc mockMvc, String username, String password) throws Exception {
+        return parseTokens(login(mockMvc, username, password));
+    }
+
+    public ResultActions login(MockMvc mockMvc, String username, String password) throws Exception {
 
         MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
         params.add("grant_type", "password");
         params.add("username", username);
         params.add("password", password);
 
-        ResultActions result = mockMvc
-                .perform(post("/oauth2/token")
-                        .params(params)
-                        .with(httpBasic(clientId, clientSecret))
-                        .accept("application/json;charset=UTF-8"))
-                .andExpect(status().isOk())
+        return requestToken(mockMvc, params);
+    }
+
+    public ResultActions refresh(MockMvc mockMvc, String refreshToken) throws Exception {
+
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("grant_type", "refresh_token");
+        params.add("refresh_token", refreshToken);
+
+        return requestToken(mockMvc, params);
+    }
+
+    public Map<String, Object> parseTokens(ResultActions result) throws Exception {
+
+        result.andExpect(status().isOk())
                 .andExpect(content().contentType("application/json;charset=UTF-8"));
 
         String resultString = result.andReturn().getResponse().getContentAsString();
 
         JacksonJsonParser jsonParser = new JacksonJsonParser();
-        return jsonParser.parseMap(resultString).get("access_token").toString();
+        return jsonParser.parseMap(resultString);
+    }
+
+    private ResultActions requestToken(MockMvc mockMvc, MultiValueMap<String, String> params) throws Exception {
+        return mockMvc
+                .perform(post("/oauth2/token")
+                        .params(params)
+                        .with(httpBasic(clientId, clientSecret))
+                        .accept("application/json;charset=UTF-8"));
     }
 }
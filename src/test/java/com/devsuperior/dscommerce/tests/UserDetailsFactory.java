@@ -10,7 +10,7 @@ public class UserDetailsFactory {
     public static List<UserDetailsProjection> createCustomClientUser(String username) {
 
         List<UserDetailsProjection> list = new ArrayList<>();
-        list.add(new UserDetailsImpl(username, "123", 1L, "ROLE_CLIENT"));
+        list.add(new UserDetailsImpl(1L, username, "123", 1L, "ROLE_CLIENT"));
         return list;
     }
 
@@ -18,15 +18,15 @@ public class UserDetailsFactory {
     public static List<UserDetailsProjection> createCustomAdminUser(String username) {
 
         List<UserDetailsProjection> list = new ArrayList<>();
-        list.add(new UserDetailsImpl(username, "123", 2L, "ROLE_ADMIN"));
+        list.add(new UserDetailsImpl(1L, username, "123", 2L, "ROLE_ADMIN"));
         return list;
     }
 
     public static List<UserDetailsProjection> createCustomAdminClientUser(String username) {
 
         List<UserDetailsProjection> list = new ArrayList<>();
-        list.add(new UserDetailsImpl(username, "123", 1L, "ROLE_CLIENT"));
-        list.add(new UserDetailsImpl(username, "123", 2L, "ROLE_ADMIN"));
+        list.add(new UserDetailsImpl(1L, username, "123", 1L, "ROLE_CLIENT"));
+        list.add(new UserDetailsImpl(1L, username, "123", 2L, "ROLE_ADMIN"));
         return list;
     }
 
@@ -34,6 +34,7 @@ public class UserDetailsFactory {
 
 class UserDetailsImpl implements UserDetailsProjection {
 
+    private Long userId;
     private String username;
     private String password;
     private Long roleId;
@@ -42,13 +43,19 @@ class UserDetailsImpl implements UserDetailsProjection {
     public UserDetailsImpl() {
     }
 
-    public UserDetailsImpl(String username, String password, Long roleId, String authority) {
+    public UserDetailsImpl(Long userId, String username, String password, Long roleId, String authority) {
+        this.userId = userId;
         this.username = username;
         this.password = password;
         this.roleId = roleId;
         this.authority = authority;
     }
 
+    @Override
+    public Long getUserId() {
+        return userId;
+    }
+
     @Override
     public String getUsername() {
         return username;